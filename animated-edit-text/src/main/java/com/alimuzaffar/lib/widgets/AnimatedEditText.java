@@ -28,6 +28,8 @@ import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.text.InputType;
 import android.text.TextUtils;
 import android.util.AttributeSet;
@@ -39,6 +41,7 @@ import android.view.animation.OvershootInterpolator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import androidx.appcompat.widget.AppCompatEditText;
 import androidx.core.text.TextUtilsCompat;
@@ -73,6 +76,47 @@ public class AnimatedEditText extends AppCompatEditText {
     private int mEnd = 0;
 
     private AnimatorSet mAnimSet = null;
+    private AnimationDriver mAnimDriver;
+
+    private static final long REVEAL_DURATION_MS = 1500;
+    private static final long REVEAL_MORPH_DURATION_MS = 150;
+    private boolean mRevealLastChar = false;
+    //state of the revealed character, kept in primitives as it changes on every keystroke.
+    private int mRevealIndex = -1;
+    private long mRevealDeadline = 0;
+    private boolean mRevealScheduled = false;
+    private float mRevealMorph = 0;
+    private AnimationDriver mRevealDriver;
+    //one runnable per view, typing pushes mRevealDeadline forward instead of posting again.
+    private final Runnable mRevealTimeout = new Runnable() {
+        @Override
+        public void run() {
+            mRevealScheduled = false;
+            if (mRevealIndex < 0) {
+                return;
+            }
+            AnimationClock clock = mAnimDriver.getClock();
+            long remaining = mRevealDeadline - clock.uptimeMillis();
+            if (remaining > 0) {
+                mRevealScheduled = true;
+                clock.postDelayed(this, remaining);
+            } else {
+                animateRevealToMask();
+            }
+        }
+    };
+
+    private PerformanceMetrics mMetrics;
+    private boolean mAwaitingFirstFrame = false;
+    private long mKeystrokeNanos = 0;
+
+    private ArrayList<CommittedTextStream> mCommittedTextStreams = null;
+
+    private boolean mClearPending = false;
+    private boolean mRestoringState = false;
+
+    private TypingTraceRecorder mTraceRecorder;
+    private boolean mClearRecorded = false;
 
     private float mCursorX = 0;
     private boolean mAnimateCursor = true;
@@ -87,6 +131,17 @@ public class AnimatedEditText extends AppCompatEditText {
         RIGHT_TO_LEFT, BOTTOM_UP, MIDDLE_UP, POP_IN, NONE
     }
 
+    /**
+     * Listener for text that has settled, see
+     * {@link #addOnTextCommittedListener(OnTextCommittedListener, long, Executor)}.
+     */
+    public interface OnTextCommittedListener {
+        /**
+         * @param text the settled text.
+         */
+        void onTextCommitted(String text);
+    }
+
     public AnimatedEditText(Context context) {
         super(context);
         init(context, null);
@@ -103,6 +158,8 @@ public class AnimatedEditText extends AppCompatEditText {
     }
 
     private void init(Context context, AttributeSet attrs) {
+        mAnimDriver = new AnimationDriver(context, ChoreographerAnimationClock.getInstance());
+        mRevealDriver = new AnimationDriver(context, mAnimDriver.getClock());
         TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.AnimatedEditText, 0, 0);
         try {
             TypedValue outValue = new TypedValue();
@@ -124,6 +181,7 @@ public class AnimatedEditText extends AppCompatEditText {
             final boolean isLayoutRtl = TextUtilsCompat.getLayoutDirectionFromLocale(Locale.getDefault()) == ViewCompat.LAYOUT_DIRECTION_RTL;
             mAnimateCursor = ta.getBoolean(R.styleable.AnimatedEditText_animateCursor, mAnimateCursor);
             mAnimateCursor = mAnimateCursor && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN && !isLayoutRtl;
+            mRevealLastChar = ta.getBoolean(R.styleable.AnimatedEditText_revealLastCharacter, mRevealLastChar);
         } finally {
             ta.recycle();
         }
@@ -193,6 +251,142 @@ public class AnimatedEditText extends AppCompatEditText {
 
     }
 
+    /**
+     * When a mask is used, briefly show the last character typed before it morphs into the mask,
+     * like the platform does for password fields.
+     *
+     * @param reveal show the last character typed.
+     */
+    public void setRevealLastCharacter(boolean reveal) {
+        mRevealLastChar = reveal;
+        if (!reveal) {
+            hideRevealedChar();
+        }
+    }
+
+    /**
+     * Set the clock that drives the animations. Animations are driven by the Choreographer by
+     * default, tests can use a {@link ManualAnimationClock} to step through them frame by frame.
+     *
+     * @param clock the clock to use.
+     */
+    public void setAnimationClock(AnimationClock clock) {
+        AnimationClock previous = mAnimDriver.getClock();
+        if (mRevealScheduled && previous != clock) {
+            //keep the time left before the revealed character is masked.
+            long remaining = Math.max(0, mRevealDeadline - previous.uptimeMillis());
+            previous.removeCallbacks(mRevealTimeout);
+            mRevealDeadline = clock.uptimeMillis() + remaining;
+            clock.postDelayed(mRevealTimeout, remaining);
+        }
+        mAnimDriver.setClock(clock);
+        mRevealDriver.setClock(clock);
+        if (mCommittedTextStreams != null) {
+            for (int i = 0; i < mCommittedTextStreams.size(); i++) {
+                mCommittedTextStreams.get(i).setClock(clock);
+            }
+        }
+    }
+
+    public AnimationClock getAnimationClock() {
+        return mAnimDriver.getClock();
+    }
+
+    /**
+     * Add sections for onDraw, onTextChanged, the set up of each animation and TextDrawable
+     * draw / init to system traces, as well as a counter of running animations. Use it to pin
+     * down the cost of these fields in systrace or Perfetto. Off by default, when off the cost is
+     * a single check per section. Call from the main thread.
+     *
+     * @param enabled whether to trace.
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        Tracing.setEnabled(enabled);
+    }
+
+    /**
+     * Collect metrics about the cost of this field into the given metrics: keystroke to first
+     * animated frame latency, draw time, animations started, cancelled and completed and frames
+     * dropped while animating. Metrics are off by default.
+     *
+     * @param metrics where to collect the metrics, or null to stop collecting.
+     */
+    public void setPerformanceMetrics(PerformanceMetrics metrics) {
+        mMetrics = metrics;
+        mAnimDriver.setMetrics(metrics);
+        mAwaitingFirstFrame = false;
+    }
+
+    /**
+     * Get notified of the text once it has settled, instead of on every edit like a TextWatcher.
+     * The text is delivered once no edit has been made for {@code debounceMillis} and no
+     * animation is running, so the intermediate text of a clear animation isn't delivered.
+     * Edits in between are coalesced and the same text is never delivered twice in a row.
+     *
+     * @param listener       the listener to notify.
+     * @param debounceMillis how long the text must stay unchanged.
+     * @param executor       the executor to notify the listener on, or null for the main thread.
+     */
+    public void addOnTextCommittedListener(OnTextCommittedListener listener, long debounceMillis, Executor executor) {
+        if (mCommittedTextStreams == null) {
+            mCommittedTextStreams = new ArrayList<>();
+        }
+        mCommittedTextStreams.add(new CommittedTextStream(this, listener, debounceMillis, executor));
+    }
+
+    public void removeOnTextCommittedListener(OnTextCommittedListener listener) {
+        if (mCommittedTextStreams == null) {
+            return;
+        }
+        for (int i = mCommittedTextStreams.size() - 1; i >= 0; i--) {
+            CommittedTextStream stream = mCommittedTextStreams.get(i);
+            if (stream.mListener == listener) {
+                stream.cancel();
+                mCommittedTextStreams.remove(i);
+            }
+        }
+    }
+
+    boolean isAnimating() {
+        return mAnimDriver.isRunning();
+    }
+
+    //the state of the current frame, for tests stepping through the animations.
+
+    float getAnimRightOffset() {
+        return mAnimRightOffset;
+    }
+
+    float getAnimBottomOffset() {
+        return mAnimBottomOffset;
+    }
+
+    int getAnimAlpha() {
+        return mAnimPaint.getAlpha();
+    }
+
+    float getAnimTextSize() {
+        return mAnimPaint.getTextSize();
+    }
+
+    int getRevealedIndex() {
+        return mRevealIndex;
+    }
+
+    float getRevealMorph() {
+        return mRevealMorph;
+    }
+
+    /**
+     * Record the timing of the edits made to this field, anonymized, to replay them later.
+     *
+     * @param recorder the recorder to use, or null to stop recording.
+     */
+    public void setTypingTraceRecorder(TypingTraceRecorder recorder) {
+        mTraceRecorder = recorder;
+        mClearRecorded = false;
+    }
+
     private void setupPaint() {
         mPaint = new Paint(getPaint());
         mAnimPaint = new Paint(getPaint());
@@ -220,6 +414,26 @@ public class AnimatedEditText extends AppCompatEditText {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        Tracing.beginSection(Tracing.ON_DRAW);
+        try {
+            if (mMetrics == null) {
+                drawFrame(canvas);
+                return;
+            }
+            long drawStart = System.nanoTime();
+            drawFrame(canvas);
+            long drawEnd = System.nanoTime();
+            mMetrics.recordDrawTime(drawEnd - drawStart);
+            if (mAwaitingFirstFrame) {
+                mAwaitingFirstFrame = false;
+                mMetrics.recordFirstFrameLatency(drawEnd - mKeystrokeNanos);
+            }
+        } finally {
+            Tracing.endSection();
+        }
+    }
+
+    private void drawFrame(Canvas canvas) {
         super.onDraw(canvas);
         if (!mAnimated) {
             return;
@@ -287,7 +501,70 @@ public class AnimatedEditText extends AppCompatEditText {
     }
 
     private void drawAnimText(Canvas canvas, CharSequence animText, float startX, float bottomX) {
-        canvas.drawText(animText, mStart, mEnd, startX + mAnimRightOffset, bottomX + mAnimBottomOffset, mAnimPaint);
+        float x = startX + mAnimRightOffset;
+        float y = bottomX + mAnimBottomOffset;
+        if (mRevealIndex < 0 || mRevealIndex != mEnd - 1 || mRevealIndex < mStart) {
+            canvas.drawText(animText, mStart, mEnd, x, y, mAnimPaint);
+            return;
+        }
+        //the last character is revealed, draw it cross fading from the typed character to the mask.
+        if (mRevealIndex > mStart) {
+            canvas.drawText(animText, mStart, mRevealIndex, x, y, mAnimPaint);
+            x += mAnimPaint.measureText(animText, mStart, mRevealIndex);
+        }
+        int alpha = mAnimPaint.getAlpha();
+        if (mRevealMorph < 1) {
+            mAnimPaint.setAlpha((int) (alpha * (1 - mRevealMorph)));
+            canvas.drawText(getText(), mRevealIndex, mEnd, x, y, mAnimPaint);
+        }
+        if (mRevealMorph > 0) {
+            mAnimPaint.setAlpha((int) (alpha * mRevealMorph));
+            canvas.drawText(animText, mRevealIndex, mEnd, x, y, mAnimPaint);
+        }
+        mAnimPaint.setAlpha(alpha);
+    }
+
+    private void revealChar(int index) {
+        mRevealDriver.cancel();
+        mRevealIndex = index;
+        mRevealMorph = 0;
+        AnimationClock clock = mAnimDriver.getClock();
+        mRevealDeadline = clock.uptimeMillis() + REVEAL_DURATION_MS;
+        if (!mRevealScheduled) {
+            mRevealScheduled = true;
+            clock.postDelayed(mRevealTimeout, REVEAL_DURATION_MS);
+        }
+    }
+
+    private void hideRevealedChar() {
+        if (mRevealIndex < 0) {
+            return;
+        }
+        mRevealDriver.cancel();
+        mRevealIndex = -1;
+        invalidate();
+    }
+
+    private void animateRevealToMask() {
+        ValueAnimator va = ValueAnimator.ofFloat(0, 1);
+        va.setDuration(REVEAL_MORPH_DURATION_MS);
+        va.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                mRevealMorph = (Float) animation.getAnimatedValue();
+                AnimatedEditText.this.invalidate();
+            }
+        });
+        AnimatorSet set = new AnimatorSet();
+        set.addListener(new AnimationEndListener() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                mRevealIndex = -1;
+                mRevealMorph = 0;
+            }
+        });
+        set.play(va);
+        mRevealDriver.start(set);
     }
 
     private void drawCursor(Canvas canvas, float startX) {
@@ -330,7 +607,7 @@ public class AnimatedEditText extends AppCompatEditText {
         }
     }
 
-    private String getFixedText() {
+    String getFixedText() {
         if (TextUtils.isEmpty(mMask)) {
             return TextUtils.substring(getText(), 0, mStart);
         } else {
@@ -338,7 +615,7 @@ public class AnimatedEditText extends AppCompatEditText {
         }
     }
 
-    private String getAnimText() {
+    String getAnimText() {
         if (TextUtils.isEmpty(mMask)) {
             return TextUtils.substring(getText(), mStart, mEnd);
         } else {
@@ -346,7 +623,7 @@ public class AnimatedEditText extends AppCompatEditText {
         }
     }
 
-    private StringBuilder getMaskChars() {
+    StringBuilder getMaskChars() {
         if (mMaskChars == null) {
             mMaskChars = new StringBuilder();
         }
@@ -363,17 +640,28 @@ public class AnimatedEditText extends AppCompatEditText {
 
     @Override
     public void setText(CharSequence text, final BufferType type) {
+        if (mRestoringState) {
+            super.setText(text, type);
+            return;
+        }
+        if (mTraceRecorder != null && TextUtils.isEmpty(text) && !TextUtils.isEmpty(getText())) {
+            //record the clear when asked for, the text may only be removed once animated out.
+            mTraceRecorder.recordClear(mAnimDriver.getClock().uptimeMillis(), getText().length());
+            mClearRecorded = true;
+        }
 
         if (mAnimated && mAnimatedClear && mPaint != null && TextUtils.isEmpty(text)) {
             AnimationEndListener endListener = new AnimationEndListener() {
                 @Override
                 public void onAnimationEnd(Animator animation) {
+                    mClearPending = false;
                     AnimatedEditText.super.setText(null, type);
                 }
             };
 
             mStart = 0;
             mEnd = getText().length();
+            mClearPending = true;
 
             switch (mAnimationType) {
                 case POP_IN:
@@ -389,6 +677,7 @@ public class AnimatedEditText extends AppCompatEditText {
                     animateInFromMiddle(true, endListener);
                     break;
                 default:
+                    mClearPending = false;
                     super.setText(text, type);
             }
         } else {
@@ -396,6 +685,62 @@ public class AnimatedEditText extends AppCompatEditText {
         }
     }
 
+    @Override
+    public Parcelable onSaveInstanceState() {
+        SavedState ss = new SavedState(super.onSaveInstanceState());
+        //the text a running clear animation is removing isn't committed.
+        ss.clearPending = mClearPending;
+        return ss;
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState ss = (SavedState) state;
+        mRestoringState = true;
+        try {
+            super.onRestoreInstanceState(ss.getSuperState());
+            if (ss.clearPending && !TextUtils.isEmpty(getText())) {
+                super.setText(null, BufferType.EDITABLE);
+            }
+        } finally {
+            mRestoringState = false;
+        }
+        settle();
+    }
+
+    /*
+     * Jump straight to the frame the animations would end on, with all of the text in place.
+     */
+    private void settle() {
+        mAnimDriver.cancel();
+        hideRevealedChar();
+        mStart = 0;
+        mEnd = getText().length();
+        mFixedRightOffset = 0;
+        mFixedBottomOffset = 0;
+        mAnimRightOffset = 0;
+        mAnimBottomOffset = 0;
+        mCursorX = 0;
+        if (mAnimPaint != null) {
+            mAnimPaint.setAlpha(mOriginalAlpha);
+            mAnimPaint.setTextSize(getPaint().getTextSize());
+        }
+        if (!TextUtils.isEmpty(mMask)) {
+            //size the mask buffer once rather than growing it a character at a time.
+            if (mMaskChars == null) {
+                mMaskChars = new StringBuilder(mEnd);
+            } else {
+                mMaskChars.ensureCapacity(mEnd);
+            }
+            getMaskChars();
+        }
+        invalidate();
+    }
+
     @Override
     protected void onFocusChanged(boolean focused, int direction, Rect previouslyFocusedRect) {
         super.onFocusChanged(focused, direction, previouslyFocusedRect);
@@ -404,7 +749,33 @@ public class AnimatedEditText extends AppCompatEditText {
 
     @Override
     protected void onTextChanged(CharSequence text, int start, int lengthBefore, int lengthAfter) {
+        Tracing.beginSection(Tracing.ON_TEXT_CHANGED);
+        try {
+            handleTextChanged(text, start, lengthBefore, lengthAfter);
+        } finally {
+            Tracing.endSection();
+        }
+    }
+
+    private void handleTextChanged(CharSequence text, int start, int lengthBefore, int lengthAfter) {
+        long keystrokeNanos = mMetrics != null ? System.nanoTime() : 0;
         super.onTextChanged(text, start, lengthBefore, lengthAfter);
+        if (mCommittedTextStreams != null) {
+            for (int i = 0; i < mCommittedTextStreams.size(); i++) {
+                mCommittedTextStreams.get(i).onTextChanged(mAnimDriver.getClock());
+            }
+        }
+        if (mRestoringState) {
+            //restored text isn't typed, onRestoreInstanceState() settles it without animating.
+            return;
+        }
+        if (mTraceRecorder != null) {
+            if (mClearRecorded && text.length() == 0) {
+                mClearRecorded = false;
+            } else {
+                mTraceRecorder.recordTextChange(mAnimDriver.getClock().uptimeMillis(), start, lengthBefore, lengthAfter);
+            }
+        }
         if (!mAnimated) {
             return;
         }
@@ -415,6 +786,14 @@ public class AnimatedEditText extends AppCompatEditText {
         }
         String added = TextUtils.substring(text, start, start + lengthAfter);
         int textLength = text.length();
+
+        if (mRevealLastChar && !TextUtils.isEmpty(mMask)) {
+            if (lengthBefore == 0 && lengthAfter == 1 && textLength == start + 1) {
+                revealChar(start);
+            } else {
+                hideRevealedChar();
+            }
+        }
         //Log.d("AnimatedEditText", String.format("text=%s, textLength=%d, start=%d, lengthBefore=%d, lengthAfter=%d", text, textLength, start, lengthBefore, lengthAfter));
 
         if (lengthAfter == 1 && added.equals(" ")) {
@@ -431,7 +810,7 @@ public class AnimatedEditText extends AppCompatEditText {
 
         if (lengthBefore < lengthAfter && textLength == start + lengthAfter) {
             if (mAnimSet != null) {
-                mAnimSet.cancel();
+                mAnimDriver.cancel();
                 mAnimSet = null;
             }
             //if we are adding text & adding it to the end of the line.
@@ -463,6 +842,10 @@ public class AnimatedEditText extends AppCompatEditText {
                     invalidate();
                     break;
             }
+            if (mMetrics != null && mAnimDriver.isRunning()) {
+                mKeystrokeNanos = keystrokeNanos;
+                mAwaitingFirstFrame = true;
+            }
         } else {
             mStart = 0;
             mEnd = text.length();
@@ -474,43 +857,48 @@ public class AnimatedEditText extends AppCompatEditText {
     }
 
     private void animateInFromBottom(boolean reverse, AnimationEndListener listener) {
-        float start = reverse ? 0 : getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop();
-        float end = reverse ? getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop() : 0;
-        ValueAnimator animUp = ValueAnimator.ofFloat(start, end);
-        animUp.setDuration(300);
-        animUp.setInterpolator(new OvershootInterpolator());
-        animUp.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mAnimBottomOffset = (Float) animation.getAnimatedValue();
-                AnimatedEditText.this.invalidate();
-            }
-        });
+        Tracing.beginSection(Tracing.ANIMATE_IN_FROM_BOTTOM);
+        try {
+            float start = reverse ? 0 : getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop();
+            float end = reverse ? getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop() : 0;
+            ValueAnimator animUp = ValueAnimator.ofFloat(start, end);
+            animUp.setDuration(300);
+            animUp.setInterpolator(new OvershootInterpolator());
+            animUp.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    mAnimBottomOffset = (Float) animation.getAnimatedValue();
+                    AnimatedEditText.this.invalidate();
+                }
+            });
 
-        int alphaStart = reverse ? mOriginalAlpha : 0;
-        int alphaEnd = reverse ? 0 : mOriginalAlpha;
-        ValueAnimator animAlpha = ValueAnimator.ofInt(alphaStart, alphaEnd);
-        animAlpha.setDuration(reverse ? 100 : 300);
-        animAlpha.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                int a = (Integer) animation.getAnimatedValue();
-                mAnimPaint.setAlpha(a);
+            int alphaStart = reverse ? mOriginalAlpha : 0;
+            int alphaEnd = reverse ? 0 : mOriginalAlpha;
+            ValueAnimator animAlpha = ValueAnimator.ofInt(alphaStart, alphaEnd);
+            animAlpha.setDuration(reverse ? 100 : 300);
+            animAlpha.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    int a = (Integer) animation.getAnimatedValue();
+                    mAnimPaint.setAlpha(a);
+                }
+            });
+            mAnimSet = new AnimatorSet();
+            if (listener != null) {
+                mAnimSet.addListener(listener);
             }
-        });
-        mAnimSet = new AnimatorSet();
-        if (listener != null) {
-            mAnimSet.addListener(listener);
-        }
-        mAnimationsToPlay.clear();
-        mAnimationsToPlay.add(animAlpha);
-        mAnimationsToPlay.add(animUp);
-        if (mShouldAnimateCursor) {
-            ValueAnimator animCursor = animateMoveCursor(reverse);
-            mAnimationsToPlay.add(animCursor);
+            mAnimationsToPlay.clear();
+            mAnimationsToPlay.add(animAlpha);
+            mAnimationsToPlay.add(animUp);
+            if (mShouldAnimateCursor) {
+                ValueAnimator animCursor = animateMoveCursor(reverse);
+                mAnimationsToPlay.add(animCursor);
+            }
+            mAnimSet.playTogether(mAnimationsToPlay);
+            mAnimDriver.start(mAnimSet);
+        } finally {
+            Tracing.endSection();
         }
-        mAnimSet.playTogether(mAnimationsToPlay);
-        mAnimSet.start();
     }
 
     private void animateInFromRight() {
@@ -518,30 +906,35 @@ public class AnimatedEditText extends AppCompatEditText {
     }
 
     private void animateInFromRight(boolean reverse, AnimationEndListener listener) {
-        float start = reverse ? 0 : getWidth() + (getContext().getResources().getDisplayMetrics().widthPixels - getWidth());
-        float end = reverse ? getWidth() + (getContext().getResources().getDisplayMetrics().widthPixels - getWidth()) : 0;
-        ValueAnimator va = ValueAnimator.ofFloat(start, end);
-        va.setDuration(300);
-        va.setInterpolator(new DecelerateInterpolator());
-        va.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mAnimRightOffset = (Float) animation.getAnimatedValue();
-                AnimatedEditText.this.invalidate();
+        Tracing.beginSection(Tracing.ANIMATE_IN_FROM_RIGHT);
+        try {
+            float start = reverse ? 0 : getWidth() + (getContext().getResources().getDisplayMetrics().widthPixels - getWidth());
+            float end = reverse ? getWidth() + (getContext().getResources().getDisplayMetrics().widthPixels - getWidth()) : 0;
+            ValueAnimator va = ValueAnimator.ofFloat(start, end);
+            va.setDuration(300);
+            va.setInterpolator(new DecelerateInterpolator());
+            va.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    mAnimRightOffset = (Float) animation.getAnimatedValue();
+                    AnimatedEditText.this.invalidate();
+                }
+            });
+            mAnimSet = new AnimatorSet();
+            if (listener != null) {
+                mAnimSet.addListener(listener);
             }
-        });
-        mAnimSet = new AnimatorSet();
-        if (listener != null) {
-            mAnimSet.addListener(listener);
-        }
-        mAnimationsToPlay.clear();
-        mAnimationsToPlay.add(va);
-        if (mShouldAnimateCursor) {
-            ValueAnimator animCursor = animateMoveCursor(reverse);
-            mAnimationsToPlay.add(animCursor);
+            mAnimationsToPlay.clear();
+            mAnimationsToPlay.add(va);
+            if (mShouldAnimateCursor) {
+                ValueAnimator animCursor = animateMoveCursor(reverse);
+                mAnimationsToPlay.add(animCursor);
+            }
+            mAnimSet.playTogether(mAnimationsToPlay);
+            mAnimDriver.start(mAnimSet);
+        } finally {
+            Tracing.endSection();
         }
-        mAnimSet.playTogether(mAnimationsToPlay);
-        mAnimSet.start();
     }
 
     private void animateInFromMiddle() {
@@ -549,60 +942,65 @@ public class AnimatedEditText extends AppCompatEditText {
     }
 
     private void animateInFromMiddle(boolean reverse, AnimationEndListener listener) {
-        String fixed = TextUtils.substring(getText(), 0, mStart);
-        final float textWidth = mPaint.measureText(fixed);
-        float startMiddle = reverse ? textWidth : getWidth() / 2;
-        float endMiddle = reverse ? getWidth() / 2 : textWidth;
-
-        ValueAnimator animMiddle = ValueAnimator.ofFloat(startMiddle, endMiddle);
-        animMiddle.setInterpolator(new DecelerateInterpolator());
-        animMiddle.setDuration(200);
-        animMiddle.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mAnimRightOffset = (Float) animation.getAnimatedValue();
-                mAnimRightOffset -= textWidth;
-                AnimatedEditText.this.invalidate();
-            }
-        });
+        Tracing.beginSection(Tracing.ANIMATE_IN_FROM_MIDDLE);
+        try {
+            String fixed = TextUtils.substring(getText(), 0, mStart);
+            final float textWidth = mPaint.measureText(fixed);
+            float startMiddle = reverse ? textWidth : getWidth() / 2;
+            float endMiddle = reverse ? getWidth() / 2 : textWidth;
+
+            ValueAnimator animMiddle = ValueAnimator.ofFloat(startMiddle, endMiddle);
+            animMiddle.setInterpolator(new DecelerateInterpolator());
+            animMiddle.setDuration(200);
+            animMiddle.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    mAnimRightOffset = (Float) animation.getAnimatedValue();
+                    mAnimRightOffset -= textWidth;
+                    AnimatedEditText.this.invalidate();
+                }
+            });
 
-        float startUp = reverse ? 0 : getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop();
-        float endUp = reverse ? getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop() : 0;
-        ValueAnimator animUp = ValueAnimator.ofFloat(startUp, endUp);
-        animUp.setDuration(200);
-        animUp.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mAnimBottomOffset = (Float) animation.getAnimatedValue();
-                AnimatedEditText.this.invalidate();
-            }
-        });
+            float startUp = reverse ? 0 : getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop();
+            float endUp = reverse ? getHeight() - getCompoundPaddingBottom() - getCompoundPaddingTop() : 0;
+            ValueAnimator animUp = ValueAnimator.ofFloat(startUp, endUp);
+            animUp.setDuration(200);
+            animUp.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    mAnimBottomOffset = (Float) animation.getAnimatedValue();
+                    AnimatedEditText.this.invalidate();
+                }
+            });
 
-        int alphaStart = reverse ? mOriginalAlpha : 0;
-        int alphaEnd = reverse ? 0 : mOriginalAlpha;
-        ValueAnimator animAlpha = ValueAnimator.ofInt(alphaStart, alphaEnd);
-        animAlpha.setDuration(300);
-        animAlpha.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                int a = (Integer) animation.getAnimatedValue();
-                mAnimPaint.setAlpha(a);
+            int alphaStart = reverse ? mOriginalAlpha : 0;
+            int alphaEnd = reverse ? 0 : mOriginalAlpha;
+            ValueAnimator animAlpha = ValueAnimator.ofInt(alphaStart, alphaEnd);
+            animAlpha.setDuration(300);
+            animAlpha.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    int a = (Integer) animation.getAnimatedValue();
+                    mAnimPaint.setAlpha(a);
+                }
+            });
+            mAnimSet = new AnimatorSet();
+            if (listener != null) {
+                mAnimSet.addListener(listener);
             }
-        });
-        mAnimSet = new AnimatorSet();
-        if (listener != null) {
-            mAnimSet.addListener(listener);
-        }
-        mAnimationsToPlay.clear();
-        mAnimationsToPlay.add(animUp);
-        mAnimationsToPlay.add(animAlpha);
-        mAnimationsToPlay.add(animMiddle);
-        if (mShouldAnimateCursor) {
-            ValueAnimator animCursor = animateMoveCursor(reverse);
-            mAnimationsToPlay.add(animCursor);
+            mAnimationsToPlay.clear();
+            mAnimationsToPlay.add(animUp);
+            mAnimationsToPlay.add(animAlpha);
+            mAnimationsToPlay.add(animMiddle);
+            if (mShouldAnimateCursor) {
+                ValueAnimator animCursor = animateMoveCursor(reverse);
+                mAnimationsToPlay.add(animCursor);
+            }
+            mAnimSet.playTogether(mAnimationsToPlay);
+            mAnimDriver.start(mAnimSet);
+        } finally {
+            Tracing.endSection();
         }
-        mAnimSet.playTogether(mAnimationsToPlay);
-        mAnimSet.start();
     }
 
     private void animatePopIn() {
@@ -610,30 +1008,35 @@ public class AnimatedEditText extends AppCompatEditText {
     }
 
     private void animatePopIn(final boolean reverse, AnimationEndListener listener) {
-        float start = reverse ? getPaint().getTextSize() : 1;
-        float end = reverse ? 1 : getPaint().getTextSize();
-        ValueAnimator va = ValueAnimator.ofFloat(start, end);
-        va.setInterpolator(new OvershootInterpolator());
-        va.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mAnimPaint.setTextSize((Float) animation.getAnimatedValue());
-                AnimatedEditText.this.invalidate();
+        Tracing.beginSection(Tracing.ANIMATE_POP_IN);
+        try {
+            float start = reverse ? getPaint().getTextSize() : 1;
+            float end = reverse ? 1 : getPaint().getTextSize();
+            ValueAnimator va = ValueAnimator.ofFloat(start, end);
+            va.setInterpolator(new OvershootInterpolator());
+            va.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    mAnimPaint.setTextSize((Float) animation.getAnimatedValue());
+                    AnimatedEditText.this.invalidate();
+                }
+            });
+            mAnimSet = new AnimatorSet();
+            if (listener != null) {
+                mAnimSet.addListener(listener);
             }
-        });
-        mAnimSet = new AnimatorSet();
-        if (listener != null) {
-            mAnimSet.addListener(listener);
-        }
-        mAnimationsToPlay.clear();
-        mAnimationsToPlay.add(va);
-        if (mShouldAnimateCursor) {
-            ValueAnimator animCursor = animateMoveCursor(reverse);
-            mAnimationsToPlay.add(animCursor);
+            mAnimationsToPlay.clear();
+            mAnimationsToPlay.add(va);
+            if (mShouldAnimateCursor) {
+                ValueAnimator animCursor = animateMoveCursor(reverse);
+                mAnimationsToPlay.add(animCursor);
+            }
+            mAnimSet.playTogether(mAnimationsToPlay);
+            mAnimSet.setDuration(200);
+            mAnimDriver.start(mAnimSet);
+        } finally {
+            Tracing.endSection();
         }
-        mAnimSet.playTogether(mAnimationsToPlay);
-        mAnimSet.setDuration(200);
-        mAnimSet.start();
     }
 
     @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
@@ -665,6 +1068,37 @@ public class AnimatedEditText extends AppCompatEditText {
         return va;
     }
 
+    static class SavedState extends BaseSavedState {
+        boolean clearPending;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            clearPending = in.readInt() != 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(clearPending ? 1 : 0);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     abstract class AnimationEndListener implements Animator.AnimatorListener {
 
         @Override
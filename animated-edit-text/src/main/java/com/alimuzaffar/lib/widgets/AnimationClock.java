@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+/**
+ * The source of time and frames that drives the animations of an {@link AnimatedEditText}.
+ * <p>
+ * By default animations are driven by the {@code Choreographer} and delays by a {@code Handler}
+ * on the main thread. Tests and benchmarks can use
+ * {@link ManualAnimationClock} instead, to step through an animation frame by frame.
+ *
+ * @see AnimatedEditText#setAnimationClock(AnimationClock)
+ */
+public interface AnimationClock {
+
+    /**
+     * @return the current time in milliseconds, on the same time base as the frame times.
+     */
+    long uptimeMillis();
+
+    /**
+     * Run the callback once, on the next frame. Posting a callback that is already waiting for
+     * the next frame has no effect.
+     *
+     * @param callback the callback to run.
+     */
+    void postFrameCallback(FrameCallback callback);
+
+    /**
+     * Remove a callback posted with {@link #postFrameCallback(FrameCallback)}.
+     *
+     * @param callback the callback to remove.
+     */
+    void removeFrameCallback(FrameCallback callback);
+
+    /**
+     * Run the runnable once, after the given delay, on the same thread frames are delivered on.
+     *
+     * @param runnable    the runnable to run.
+     * @param delayMillis the delay in milliseconds.
+     */
+    void postDelayed(Runnable runnable, long delayMillis);
+
+    /**
+     * Remove every pending post of the runnable made with {@link #postDelayed(Runnable, long)}.
+     *
+     * @param runnable the runnable to remove.
+     */
+    void removeCallbacks(Runnable runnable);
+
+    interface FrameCallback {
+        /**
+         * Called when a new frame is being rendered.
+         *
+         * @param frameTimeMillis the time the frame started, see {@link AnimationClock#uptimeMillis()}.
+         */
+        void doFrame(long frameTimeMillis);
+    }
+}
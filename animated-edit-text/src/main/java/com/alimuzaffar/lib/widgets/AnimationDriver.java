@@ -0,0 +1,255 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.animation.Animator;
+import android.animation.AnimatorSet;
+import android.animation.ValueAnimator;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.os.Build;
+import android.provider.Settings;
+
+import java.util.ArrayList;
+
+/**
+ * Plays the animations of an {@link AnimatorSet} together, one frame at a time, on the frames of
+ * an {@link AnimationClock} instead of the framework's animation handler. This is what makes the
+ * animations of AnimatedEditText steppable from tests.
+ * <p>
+ * Only sets of {@link ValueAnimator}s played together are supported. Listeners of the set and of
+ * its animations get the same start, cancel and end callbacks as they would with {@code start()}.
+ * Like the framework, animations are stretched by the system animator duration scale, and jump
+ * straight to their end values when animations are turned off.
+ */
+final class AnimationDriver implements AnimationClock.FrameCallback {
+    //all drivers run on the main thread, this is the number of sets playing across all of them.
+    private static int sRunningCount = 0;
+
+    private final ContentResolver mContentResolver;
+    private AnimationClock mClock;
+    private AnimatorSet mSet;
+    private ArrayList<Animator> mChildren = new ArrayList<>();
+    private long mDuration;
+    private float mDurationScale = 1;
+    private long mStartTime = -1;
+    //play time already elapsed on a previous clock, see setClock().
+    private long mElapsedBeforeStart = 0;
+    private long mPreviousFrameTime = -1;
+    private PerformanceMetrics mMetrics;
+
+    AnimationDriver(Context context, AnimationClock clock) {
+        mContentResolver = context.getContentResolver();
+        mClock = clock;
+    }
+
+    /**
+     * Move to another clock. A running set carries on from where it is, the times of the old
+     * clock mean nothing on the new one.
+     */
+    void setClock(AnimationClock clock) {
+        if (clock == mClock) {
+            return;
+        }
+        if (isRunning()) {
+            mClock.removeFrameCallback(this);
+            if (mStartTime >= 0) {
+                mElapsedBeforeStart = mPreviousFrameTime - mStartTime;
+            }
+            mStartTime = -1;
+            mPreviousFrameTime = -1;
+            clock.postFrameCallback(this);
+        }
+        mClock = clock;
+    }
+
+    AnimationClock getClock() {
+        return mClock;
+    }
+
+    void setMetrics(PerformanceMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    boolean isRunning() {
+        return mSet != null;
+    }
+
+    /**
+     * Start playing the given set, cancelling the set currently playing if there is one.
+     * The animations are set to their start values straight away.
+     */
+    void start(AnimatorSet set) {
+        cancel();
+        mSet = set;
+        mChildren = set.getChildAnimations();
+        long setDuration = set.getDuration();
+        mDuration = 0;
+        for (int i = 0; i < mChildren.size(); i++) {
+            Animator child = mChildren.get(i);
+            if (setDuration >= 0) {
+                child.setDuration(setDuration);
+            }
+            mDuration = Math.max(mDuration, child.getDuration());
+        }
+        mDurationScale = getDurationScale();
+        mElapsedBeforeStart = 0;
+        mStartTime = -1;
+        mPreviousFrameTime = -1;
+        Tracing.setCounter(Tracing.COUNTER_ANIMATIONS, ++sRunningCount);
+        if (mMetrics != null) {
+            mMetrics.recordAnimationStarted();
+        }
+
+        dispatchStart(set, mChildren);
+        if (mDurationScale == 0) {
+            //animations are off, go straight to the end values.
+            setPlayTime(mDuration);
+            finish();
+            return;
+        }
+        setPlayTime(0);
+        mClock.postFrameCallback(this);
+    }
+
+    /**
+     * Stop the set currently playing, if any, leaving the animations where they are.
+     */
+    void cancel() {
+        if (mSet == null) {
+            return;
+        }
+        AnimatorSet set = mSet;
+        mSet = null;
+        mClock.removeFrameCallback(this);
+        Tracing.setCounter(Tracing.COUNTER_ANIMATIONS, --sRunningCount);
+        if (mMetrics != null) {
+            mMetrics.recordAnimationCancelled();
+        }
+        ArrayList<Animator> children = mChildren;
+        dispatchCancel(set, children);
+        dispatchEnd(set, children);
+    }
+
+    @Override
+    public void doFrame(long frameTimeMillis) {
+        if (mSet == null) {
+            return;
+        }
+        //like ValueAnimator, the first frame is the start of the animation.
+        if (mStartTime < 0) {
+            mStartTime = frameTimeMillis - mElapsedBeforeStart;
+        }
+        if (mMetrics != null && mPreviousFrameTime >= 0) {
+            mMetrics.recordAnimationFrame(frameTimeMillis - mPreviousFrameTime);
+        }
+        mPreviousFrameTime = frameTimeMillis;
+        //play time is kept unscaled, like the durations of the animations.
+        long playTime = (long) ((frameTimeMillis - mStartTime) / mDurationScale);
+        setPlayTime(playTime);
+        if (playTime >= mDuration) {
+            finish();
+        } else {
+            mClock.postFrameCallback(this);
+        }
+    }
+
+    private void finish() {
+        AnimatorSet set = mSet;
+        mSet = null;
+        Tracing.setCounter(Tracing.COUNTER_ANIMATIONS, --sRunningCount);
+        if (mMetrics != null) {
+            mMetrics.recordAnimationCompleted();
+        }
+        dispatchEnd(set, mChildren);
+    }
+
+    private void setPlayTime(long playTime) {
+        //before Lollipop MR1 setCurrentPlayTime() takes the scaled play time.
+        boolean scaled = Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP_MR1;
+        for (int i = 0; i < mChildren.size(); i++) {
+            Animator child = mChildren.get(i);
+            if (child instanceof ValueAnimator) {
+                long childPlayTime = Math.min(playTime, child.getDuration());
+                if (scaled) {
+                    childPlayTime = (long) (childPlayTime * mDurationScale);
+                }
+                ((ValueAnimator) child).setCurrentPlayTime(childPlayTime);
+            }
+        }
+    }
+
+    /*
+     * The animator duration scale from the developer options, also set to 0 by the
+     * "Remove animations" accessibility setting.
+     */
+    @SuppressWarnings("deprecation")
+    private float getDurationScale() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return ValueAnimator.getDurationScale();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(mContentResolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return Settings.System.getFloat(mContentResolver, Settings.System.ANIMATOR_DURATION_SCALE, 1);
+        }
+        return 1;
+    }
+
+    private static void dispatchStart(AnimatorSet set, ArrayList<Animator> children) {
+        for (int i = 0; i < children.size(); i++) {
+            Animator child = children.get(i);
+            for (Animator.AnimatorListener l : listeners(child)) {
+                l.onAnimationStart(child);
+            }
+        }
+        for (Animator.AnimatorListener l : listeners(set)) {
+            l.onAnimationStart(set);
+        }
+    }
+
+    private static void dispatchCancel(AnimatorSet set, ArrayList<Animator> children) {
+        for (int i = 0; i < children.size(); i++) {
+            Animator child = children.get(i);
+            for (Animator.AnimatorListener l : listeners(child)) {
+                l.onAnimationCancel(child);
+            }
+        }
+        for (Animator.AnimatorListener l : listeners(set)) {
+            l.onAnimationCancel(set);
+        }
+    }
+
+    private static void dispatchEnd(AnimatorSet set, ArrayList<Animator> children) {
+        for (int i = 0; i < children.size(); i++) {
+            Animator child = children.get(i);
+            for (Animator.AnimatorListener l : listeners(child)) {
+                l.onAnimationEnd(child);
+            }
+        }
+        for (Animator.AnimatorListener l : listeners(set)) {
+            l.onAnimationEnd(set);
+        }
+    }
+
+    /*
+     * Listeners are copied before dispatching, a listener is allowed to start the next set
+     * from its callback. start() replaces mChildren rather than clearing it for the same reason.
+     */
+    private static ArrayList<Animator.AnimatorListener> listeners(Animator animator) {
+        ArrayList<Animator.AnimatorListener> listeners = animator.getListeners();
+        return listeners != null ? new ArrayList<>(listeners) : new ArrayList<Animator.AnimatorListener>();
+    }
+}
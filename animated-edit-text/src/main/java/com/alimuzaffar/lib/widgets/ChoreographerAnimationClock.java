@@ -0,0 +1,120 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The default {@link AnimationClock}, frames come from the {@code Choreographer}, or from a
+ * {@code Handler} on devices older than JellyBean. Must only be used from the main thread.
+ */
+final class ChoreographerAnimationClock implements AnimationClock {
+    private static final long FALLBACK_FRAME_DELAY_MS = 16;
+    private static ChoreographerAnimationClock sInstance;
+
+    private final ArrayList<FrameCallback> mCallbacks = new ArrayList<>();
+    private final ArrayList<FrameCallback> mDispatching = new ArrayList<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private JellyBeanFrameScheduler mScheduler;
+    private boolean mFrameScheduled = false;
+
+    private final Runnable mFallbackFrame = new Runnable() {
+        @Override
+        public void run() {
+            doFrame(SystemClock.uptimeMillis());
+        }
+    };
+
+    static ChoreographerAnimationClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new ChoreographerAnimationClock();
+        }
+        return sInstance;
+    }
+
+    private ChoreographerAnimationClock() {
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                if (mScheduler == null) {
+                    mScheduler = new JellyBeanFrameScheduler();
+                }
+                mScheduler.schedule();
+            } else {
+                mHandler.postDelayed(mFallbackFrame, FALLBACK_FRAME_DELAY_MS);
+            }
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        mCallbacks.remove(callback);
+    }
+
+    @Override
+    public void postDelayed(Runnable runnable, long delayMillis) {
+        mHandler.postDelayed(runnable, delayMillis);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable runnable) {
+        mHandler.removeCallbacks(runnable);
+    }
+
+    void doFrame(long frameTimeMillis) {
+        mFrameScheduled = false;
+        //callbacks posted while dispatching run on the next frame.
+        mDispatching.addAll(mCallbacks);
+        mCallbacks.clear();
+        for (int i = 0; i < mDispatching.size(); i++) {
+            mDispatching.get(i).doFrame(frameTimeMillis);
+        }
+        mDispatching.clear();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class JellyBeanFrameScheduler implements Choreographer.FrameCallback {
+        void schedule() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            //frame times use System.nanoTime(), which shares its time base with uptimeMillis().
+            ChoreographerAnimationClock.this.doFrame(TimeUnit.NANOSECONDS.toMillis(frameTimeNanos));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers the text of an {@link AnimatedEditText} to a listener once it has settled: no edit
+ * for the debounce time and no animation running. Intermediate values are coalesced, and a value
+ * equal to the last one delivered isn't delivered again.
+ * <p>
+ * A single runnable is used per listener. Edits only push the deadline forward, when the
+ * runnable runs before the deadline it re-posts itself for the time remaining.
+ */
+final class CommittedTextStream implements Runnable {
+    //how often to check again if an animation is running when the deadline is reached.
+    private static final long ANIMATION_RECHECK_MS = 16;
+
+    private final AnimatedEditText mView;
+    final AnimatedEditText.OnTextCommittedListener mListener;
+    private final long mDebounceMillis;
+    private final Executor mExecutor;
+
+    private AnimationClock mScheduledOn;
+    private long mDeadline;
+    private String mLastDelivered;
+
+    CommittedTextStream(AnimatedEditText view, AnimatedEditText.OnTextCommittedListener listener,
+                        long debounceMillis, Executor executor) {
+        mView = view;
+        mListener = listener;
+        mDebounceMillis = debounceMillis;
+        mExecutor = executor;
+    }
+
+    void onTextChanged(AnimationClock clock) {
+        mDeadline = clock.uptimeMillis() + mDebounceMillis;
+        if (mScheduledOn == null) {
+            mScheduledOn = clock;
+            clock.postDelayed(this, mDebounceMillis);
+        }
+    }
+
+    /**
+     * Move a pending delivery to another clock, keeping the time left until the deadline.
+     */
+    void setClock(AnimationClock clock) {
+        if (mScheduledOn == null || mScheduledOn == clock) {
+            return;
+        }
+        long remaining = Math.max(0, mDeadline - mScheduledOn.uptimeMillis());
+        mScheduledOn.removeCallbacks(this);
+        mDeadline = clock.uptimeMillis() + remaining;
+        mScheduledOn = clock;
+        clock.postDelayed(this, remaining);
+    }
+
+    void cancel() {
+        if (mScheduledOn != null) {
+            mScheduledOn.removeCallbacks(this);
+            mScheduledOn = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        AnimationClock clock = mScheduledOn;
+        mScheduledOn = null;
+        if (clock == null) {
+            return;
+        }
+        long remaining = mDeadline - clock.uptimeMillis();
+        if (remaining > 0 || mView.isAnimating()) {
+            //the text changed again, or is still animating (e.g. being cleared), wait.
+            mScheduledOn = clock;
+            clock.postDelayed(this, remaining > 0 ? remaining : ANIMATION_RECHECK_MS);
+            return;
+        }
+
+        final String text = mView.getText() == null ? "" : mView.getText().toString();
+        if (text.equals(mLastDelivered)) {
+            return;
+        }
+        mLastDelivered = text;
+        if (mExecutor == null) {
+            mListener.onTextCommitted(text);
+        } else {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mListener.onTextCommitted(text);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.TextUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Process-wide store of pre-rendered text shared by {@link TextDrawable}s in atlas mode.
+ * <p>
+ * Identical text drawn with an identical paint is rendered once into a bitmap. Bitmaps are
+ * rendered opaque so drawables that only differ in alpha share an entry, the alpha is applied
+ * when blitting. Bitmaps cover all of the ink of the text, including glyphs rising above the
+ * font's ascent or overhanging the advance width. The least recently used entries are evicted
+ * once the total size of the bitmaps goes over the memory limit.
+ * <p>
+ * Paints with a shader, path effect, mask filter or shadow layer aren't rendered into the atlas,
+ * those can't be compared reliably. Shadow layers can only be detected from Android P.
+ */
+final class GlyphAtlas {
+    static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private static final Map<Key, Entry> sBitmaps = new LinkedHashMap<>(16, 0.75f, true);
+    //reused for lookups so a cache hit doesn't allocate.
+    private static final Key sProbe = new Key();
+    private static int sMaxBytes = DEFAULT_MAX_BYTES;
+    private static int sBytes = 0;
+
+    private GlyphAtlas() {
+    }
+
+    /**
+     * Get the shared bitmap for the given text and paint, rendering it if needed.
+     *
+     * @param paint the paint the text would be drawn with
+     * @param text  the text to render
+     * @param width the advance width of the text
+     * @return the entry, or null if the text is empty, the paint can't be shared or the bitmap
+     * wouldn't fit in the atlas
+     */
+    static Entry obtain(Paint paint, String text, float width) {
+        if (TextUtils.isEmpty(text) || !canShare(paint)) {
+            return null;
+        }
+        synchronized (sBitmaps) {
+            sProbe.set(paint, text);
+            Entry entry = sBitmaps.get(sProbe);
+            if (entry != null) {
+                return entry;
+            }
+        }
+
+        Paint.FontMetricsInt fm = paint.getFontMetricsInt();
+        Rect ink = new Rect();
+        paint.getTextBounds(text, 0, text.length(), ink);
+        //a pixel for anti-aliasing, plus the half of the stroke outside the outline.
+        int pad = 1;
+        if (paint.getStyle() != Paint.Style.FILL) {
+            pad += (int) Math.ceil(paint.getStrokeWidth() / 2);
+        }
+        int left = Math.min(0, ink.left) - pad;
+        int top = Math.min(fm.top, ink.top) - pad;
+        int right = Math.max((int) Math.ceil(width), ink.right) + pad;
+        int bottom = Math.max(fm.bottom, ink.bottom) + pad;
+        if ((long) (right - left) * (bottom - top) * 4 > sMaxBytes) {
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(right - left, bottom - top, Bitmap.Config.ARGB_8888);
+        Paint opaque = new Paint(paint);
+        opaque.setColorFilter(null);
+        opaque.setAlpha(255);
+        new Canvas(bitmap).drawText(text, -left, -top, opaque);
+        Entry entry = new Entry(bitmap, left, top);
+
+        synchronized (sBitmaps) {
+            Entry previous = sBitmaps.put(new Key().set(paint, text), entry);
+            if (previous != null) {
+                sBytes -= previous.bitmap.getByteCount();
+            }
+            sBytes += bitmap.getByteCount();
+            trimToSize(sMaxBytes);
+        }
+        return entry;
+    }
+
+    /**
+     * Set the maximum number of bytes the shared bitmaps can use, evicting entries if needed.
+     * Evicted bitmaps aren't recycled, drawables still using them keep them alive until they
+     * next re-render.
+     */
+    static void setMaxBytes(int maxBytes) {
+        synchronized (sBitmaps) {
+            sMaxBytes = maxBytes;
+            trimToSize(maxBytes);
+        }
+    }
+
+    private static boolean canShare(Paint paint) {
+        if (paint.getShader() != null || paint.getPathEffect() != null || paint.getMaskFilter() != null) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.P || !paint.hasShadowLayer();
+    }
+
+    private static void trimToSize(int maxBytes) {
+        Iterator<Entry> it = sBitmaps.values().iterator();
+        while (sBytes > maxBytes && it.hasNext()) {
+            sBytes -= it.next().bitmap.getByteCount();
+            it.remove();
+        }
+    }
+
+    /**
+     * A rendered text and where it goes relative to the origin the text would be drawn at,
+     * the left of the text and its baseline.
+     */
+    static final class Entry {
+        final Bitmap bitmap;
+        final int left;
+        final int top;
+
+        Entry(Bitmap bitmap, int left, int top) {
+            this.bitmap = bitmap;
+            this.left = left;
+            this.top = top;
+        }
+    }
+
+    static final class Key {
+        String text;
+        Typeface typeface;
+        float textSize;
+        float textScaleX;
+        float textSkewX;
+        int flags;
+        int color;
+        Paint.Style style;
+        float strokeWidth;
+        float letterSpacing;
+        Locale textLocale;
+        String fontFeatureSettings;
+
+        Key set(Paint paint, String text) {
+            this.text = text;
+            typeface = paint.getTypeface();
+            textSize = paint.getTextSize();
+            textScaleX = paint.getTextScaleX();
+            textSkewX = paint.getTextSkewX();
+            flags = paint.getFlags();
+            color = paint.getColor() | Color.BLACK;
+            style = paint.getStyle();
+            strokeWidth = paint.getStrokeWidth();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                textLocale = paint.getTextLocale();
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                letterSpacing = paint.getLetterSpacing();
+                fontFeatureSettings = paint.getFontFeatureSettings();
+            }
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Float.compare(textSize, other.textSize) == 0
+                    && Float.compare(textScaleX, other.textScaleX) == 0
+                    && Float.compare(textSkewX, other.textSkewX) == 0
+                    && Float.compare(strokeWidth, other.strokeWidth) == 0
+                    && Float.compare(letterSpacing, other.letterSpacing) == 0
+                    && flags == other.flags
+                    && color == other.color
+                    && style == other.style
+                    && text.equals(other.text)
+                    && equals(typeface, other.typeface)
+                    && equals(textLocale, other.textLocale)
+                    && equals(fontFeatureSettings, other.fontFeatureSettings);
+        }
+
+        private static boolean equals(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + Float.floatToIntBits(textScaleX);
+            result = 31 * result + Float.floatToIntBits(textSkewX);
+            result = 31 * result + flags;
+            result = 31 * result + color;
+            result = 31 * result + (style != null ? style.hashCode() : 0);
+            result = 31 * result + Float.floatToIntBits(strokeWidth);
+            result = 31 * result + Float.floatToIntBits(letterSpacing);
+            result = 31 * result + (textLocale != null ? textLocale.hashCode() : 0);
+            result = 31 * result + (fontFeatureSettings != null ? fontFeatureSettings.hashCode() : 0);
+            return result;
+        }
+    }
+}
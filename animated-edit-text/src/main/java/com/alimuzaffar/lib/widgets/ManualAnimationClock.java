@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import java.util.ArrayList;
+
+/**
+ * An {@link AnimationClock} that only moves when told to, so tests and benchmarks can step
+ * through animations deterministically, one frame at a time.
+ * <p>
+ * <pre>
+ * ManualAnimationClock clock = new ManualAnimationClock();
+ * editText.setAnimationClock(clock);
+ * editText.append("a");
+ * clock.stepFrames(5);
+ * </pre>
+ */
+public class ManualAnimationClock implements AnimationClock {
+    public static final long DEFAULT_FRAME_INTERVAL_MS = 16;
+
+    private final long mFrameIntervalMillis;
+    private final ArrayList<FrameCallback> mCallbacks = new ArrayList<>();
+    private final ArrayList<FrameCallback> mDispatching = new ArrayList<>();
+    private final ArrayList<Runnable> mDelayed = new ArrayList<>();
+    private final ArrayList<Long> mDelayedTimes = new ArrayList<>();
+    private long mTimeMillis = 0;
+    private long mFrameCount = 0;
+
+    public ManualAnimationClock() {
+        this(DEFAULT_FRAME_INTERVAL_MS);
+    }
+
+    /**
+     * @param frameIntervalMillis how much time passes with every frame.
+     */
+    public ManualAnimationClock(long frameIntervalMillis) {
+        if (frameIntervalMillis <= 0) {
+            throw new IllegalArgumentException("frameIntervalMillis must be > 0");
+        }
+        mFrameIntervalMillis = frameIntervalMillis;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return mTimeMillis;
+    }
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        mCallbacks.remove(callback);
+    }
+
+    @Override
+    public void postDelayed(Runnable runnable, long delayMillis) {
+        long time = mTimeMillis + Math.max(0, delayMillis);
+        //keep in time order, posts for the same time run in the order they were made.
+        int index = mDelayedTimes.size();
+        while (index > 0 && mDelayedTimes.get(index - 1) > time) {
+            index--;
+        }
+        mDelayed.add(index, runnable);
+        mDelayedTimes.add(index, time);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable runnable) {
+        for (int i = mDelayed.size() - 1; i >= 0; i--) {
+            if (mDelayed.get(i) == runnable) {
+                mDelayed.remove(i);
+                mDelayedTimes.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Move time forward by one frame interval, run the runnables that are due and then the
+     * callbacks waiting for that frame.
+     */
+    public void stepFrame() {
+        mTimeMillis += mFrameIntervalMillis;
+        mFrameCount++;
+        runDueRunnables();
+        //callbacks posted while dispatching run on the next frame.
+        mDispatching.addAll(mCallbacks);
+        mCallbacks.clear();
+        for (int i = 0; i < mDispatching.size(); i++) {
+            mDispatching.get(i).doFrame(mTimeMillis);
+        }
+        mDispatching.clear();
+    }
+
+    /**
+     * @param frames the number of frames to step through.
+     */
+    public void stepFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            stepFrame();
+        }
+    }
+
+    /**
+     * Move time forward, stepping through every frame that falls within that time and running
+     * the runnables that become due.
+     *
+     * @param millis the time to move forward by.
+     */
+    public void advanceTimeBy(long millis) {
+        long target = mTimeMillis + millis;
+        while (mTimeMillis + mFrameIntervalMillis <= target) {
+            stepFrame();
+        }
+        mTimeMillis = target;
+        runDueRunnables();
+    }
+
+    private void runDueRunnables() {
+        while (!mDelayed.isEmpty() && mDelayedTimes.get(0) <= mTimeMillis) {
+            Runnable runnable = mDelayed.remove(0);
+            mDelayedTimes.remove(0);
+            runnable.run();
+        }
+    }
+
+    /**
+     * @return true if a callback is waiting for the next frame, e.g. an animation is running.
+     */
+    public boolean hasPendingFrame() {
+        return !mCallbacks.isEmpty();
+    }
+
+    /**
+     * @return true if a runnable posted with {@link #postDelayed(Runnable, long)} hasn't run yet.
+     */
+    public boolean hasPendingRunnables() {
+        return !mDelayed.isEmpty();
+    }
+
+    /**
+     * @return the number of frames stepped through so far.
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getFrameIntervalMillis() {
+        return mFrameIntervalMillis;
+    }
+}
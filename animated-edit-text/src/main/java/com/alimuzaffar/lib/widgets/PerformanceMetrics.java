@@ -0,0 +1,271 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import java.util.Arrays;
+
+/**
+ * Opt-in runtime metrics for one or more {@link AnimatedEditText}s.
+ * <p>
+ * Metrics are aggregated as they happen into counters and fixed-bucket histograms, recording
+ * doesn't allocate. Call {@link #snapshot()} to get a copy to send to your telemetry, and
+ * {@link #reset()} to start a new period. The same instance can be shared by several fields,
+ * but only from the main thread.
+ * <pre>
+ * PerformanceMetrics metrics = new PerformanceMetrics();
+ * animatedEditText.setPerformanceMetrics(metrics);
+ * ...
+ * PerformanceMetrics.Snapshot snapshot = metrics.snapshot();
+ * </pre>
+ *
+ * @see AnimatedEditText#setPerformanceMetrics(PerformanceMetrics)
+ */
+public class PerformanceMetrics {
+    /**
+     * Upper bounds, in microseconds, of the histogram buckets. Values over the last bound go
+     * into an extra overflow bucket.
+     */
+    static final long[] LATENCY_BUCKETS_US = {4000, 8000, 16000, 33000, 50000, 100000, 200000, 500000};
+    static final long[] DRAW_TIME_BUCKETS_US = {100, 250, 500, 1000, 2000, 4000, 8000, 16000};
+    public static final float DEFAULT_FRAME_INTERVAL_MS = 1000f / 60;
+
+    private final float mFrameIntervalMillis;
+    private final Histogram mFirstFrameLatency = new Histogram(LATENCY_BUCKETS_US);
+    private final Histogram mDrawTime = new Histogram(DRAW_TIME_BUCKETS_US);
+    private long mAnimationsStarted;
+    private long mAnimationsCancelled;
+    private long mAnimationsCompleted;
+    private long mAnimationFrames;
+    private long mDroppedFrames;
+
+    public PerformanceMetrics() {
+        this(DEFAULT_FRAME_INTERVAL_MS);
+    }
+
+    /**
+     * @param frameIntervalMillis the expected time between frames, used to count dropped frames.
+     */
+    public PerformanceMetrics(float frameIntervalMillis) {
+        mFrameIntervalMillis = frameIntervalMillis;
+    }
+
+    void recordFirstFrameLatency(long nanos) {
+        mFirstFrameLatency.record(nanos / 1000);
+    }
+
+    void recordDrawTime(long nanos) {
+        mDrawTime.record(nanos / 1000);
+    }
+
+    void recordAnimationStarted() {
+        mAnimationsStarted++;
+    }
+
+    void recordAnimationCancelled() {
+        mAnimationsCancelled++;
+    }
+
+    void recordAnimationCompleted() {
+        mAnimationsCompleted++;
+    }
+
+    /**
+     * @param sincePreviousFrameMillis time since the previous frame of the same animation.
+     */
+    void recordAnimationFrame(long sincePreviousFrameMillis) {
+        mAnimationFrames++;
+        //a frame that took 2.5 intervals means 2 frames were missed.
+        long missed = (long) (sincePreviousFrameMillis / mFrameIntervalMillis + 0.5f) - 1;
+        if (missed > 0) {
+            mDroppedFrames += missed;
+        }
+    }
+
+    /**
+     * @return a copy of the metrics collected since creation or the last {@link #reset()}.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Clear all the metrics collected so far.
+     */
+    public void reset() {
+        mFirstFrameLatency.reset();
+        mDrawTime.reset();
+        mAnimationsStarted = 0;
+        mAnimationsCancelled = 0;
+        mAnimationsCompleted = 0;
+        mAnimationFrames = 0;
+        mDroppedFrames = 0;
+    }
+
+    public static final class Snapshot {
+        private final Histogram mFirstFrameLatency;
+        private final Histogram mDrawTime;
+        private final long mAnimationsStarted;
+        private final long mAnimationsCancelled;
+        private final long mAnimationsCompleted;
+        private final long mAnimationFrames;
+        private final long mDroppedFrames;
+
+        Snapshot(PerformanceMetrics metrics) {
+            mFirstFrameLatency = new Histogram(metrics.mFirstFrameLatency);
+            mDrawTime = new Histogram(metrics.mDrawTime);
+            mAnimationsStarted = metrics.mAnimationsStarted;
+            mAnimationsCancelled = metrics.mAnimationsCancelled;
+            mAnimationsCompleted = metrics.mAnimationsCompleted;
+            mAnimationFrames = metrics.mAnimationFrames;
+            mDroppedFrames = metrics.mDroppedFrames;
+        }
+
+        /**
+         * @return time from a keystroke to the end of the first frame drawn of its animation, in microseconds.
+         */
+        public Histogram getFirstFrameLatency() {
+            return mFirstFrameLatency;
+        }
+
+        /**
+         * @return time spent in onDraw, in microseconds.
+         */
+        public Histogram getDrawTime() {
+            return mDrawTime;
+        }
+
+        public long getAnimationsStarted() {
+            return mAnimationsStarted;
+        }
+
+        public long getAnimationsCancelled() {
+            return mAnimationsCancelled;
+        }
+
+        public long getAnimationsCompleted() {
+            return mAnimationsCompleted;
+        }
+
+        /**
+         * @return the number of frames animations were stepped on.
+         */
+        public long getAnimationFrames() {
+            return mAnimationFrames;
+        }
+
+        /**
+         * @return the number of frames missed while animating.
+         */
+        public long getDroppedFrames() {
+            return mDroppedFrames;
+        }
+    }
+
+    /**
+     * A histogram with fixed buckets. Bucket {@code i} counts the values greater than the upper
+     * bound of bucket {@code i - 1} and less than or equal to its own upper bound. The last
+     * bucket counts the values over the last upper bound.
+     */
+    public static final class Histogram {
+        private final long[] mUpperBounds;
+        private final long[] mCounts;
+        private long mTotalCount;
+        private long mSum;
+        private long mMax;
+
+        Histogram(long[] upperBounds) {
+            mUpperBounds = upperBounds;
+            mCounts = new long[upperBounds.length + 1];
+        }
+
+        Histogram(Histogram other) {
+            mUpperBounds = other.mUpperBounds;
+            mCounts = other.mCounts.clone();
+            mTotalCount = other.mTotalCount;
+            mSum = other.mSum;
+            mMax = other.mMax;
+        }
+
+        void record(long value) {
+            int bucket = 0;
+            while (bucket < mUpperBounds.length && value > mUpperBounds[bucket]) {
+                bucket++;
+            }
+            mCounts[bucket]++;
+            mTotalCount++;
+            mSum += value;
+            if (value > mMax) {
+                mMax = value;
+            }
+        }
+
+        void reset() {
+            Arrays.fill(mCounts, 0);
+            mTotalCount = 0;
+            mSum = 0;
+            mMax = 0;
+        }
+
+        /**
+         * @return the number of buckets, including the overflow bucket.
+         */
+        public int getBucketCount() {
+            return mCounts.length;
+        }
+
+        /**
+         * @return the upper bound of the bucket, or Long.MAX_VALUE for the overflow bucket.
+         */
+        public long getBucketUpperBound(int bucket) {
+            return bucket < mUpperBounds.length ? mUpperBounds[bucket] : Long.MAX_VALUE;
+        }
+
+        public long getCount(int bucket) {
+            return mCounts[bucket];
+        }
+
+        public long getTotalCount() {
+            return mTotalCount;
+        }
+
+        public long getSum() {
+            return mSum;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * @return the upper bound of the bucket containing the given percentile of values,
+         * or 0 if empty.
+         */
+        public long getPercentileUpperBound(float percentile) {
+            if (mTotalCount == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(percentile / 100 * mTotalCount);
+            long seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= target) {
+                    return i < mUpperBounds.length ? mUpperBounds[i] : mMax;
+                }
+            }
+            return mMax;
+        }
+    }
+}
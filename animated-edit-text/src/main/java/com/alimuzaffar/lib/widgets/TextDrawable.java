@@ -20,9 +20,12 @@ import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.Rect;
+import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.text.Editable;
+import android.text.TextUtils;
 import android.text.TextWatcher;
+import android.view.View;
 import android.widget.TextView;
 
 import java.lang.ref.WeakReference;
@@ -34,8 +37,31 @@ public class TextDrawable extends Drawable implements TextWatcher {
     private Rect mHeightBounds;
     private boolean mBindToViewPaint = false;
     private float mPrevTextSize = 0;
-    private boolean mInitFitText = false;
     private boolean mFitTextEnabled = false;
+    private final View.OnLayoutChangeListener mLayoutListener = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (mFitTextEnabled && right - left != oldRight - oldLeft && fitTextAndInit()) {
+                invalidateSelf();
+            }
+        }
+    };
+
+    private boolean mAtlasEnabled = false;
+    private GlyphAtlas.Entry mAtlasEntry;
+    private Paint mAtlasPaint;
+
+    private float mBoundTextSize;
+    private Typeface mBoundTypeface;
+    private int mBoundColor;
+
+    private String mMeasuredText;
+    private float mMeasuredWidth;
+    private float mMeasuredTextSize;
+    private float mMeasuredTextScaleX;
+    private int mMeasuredFlags;
+    private Typeface mMeasuredTypeface;
 
     /**
      * Create a TextDrawable using the given paint object and string
@@ -69,6 +95,9 @@ public class TextDrawable extends Drawable implements TextWatcher {
                 tv.addTextChangedListener(this);
             }
             mBindToViewPaint = bindToViewsPaint;
+            if (bindToViewsPaint) {
+                boundPaintChanged(tv.getPaint());
+            }
         }
     }
 
@@ -109,25 +138,43 @@ public class TextDrawable extends Drawable implements TextWatcher {
 
     @Override
     public void draw(Canvas canvas) {
-        if (mBindToViewPaint && ref.get() != null) {
-            Paint p = ref.get().getPaint();
-            canvas.drawText(mText, 0, getBounds().height(), p);
-        } else {
-            if (mInitFitText) {
-                fitTextAndInit();
+        Tracing.beginSection(Tracing.TEXT_DRAWABLE_DRAW);
+        try {
+            TextView tv = mBindToViewPaint ? ref.get() : null;
+            if (tv != null) {
+                Paint p = tv.getPaint();
+                if (boundPaintChanged(p)) {
+                    //The views paint was changed since we last measured, bounds are out of date.
+                    mPaint.set(p);
+                    init();
+                    invalidateSelf();
+                }
+                canvas.drawText(mText, 0, getBounds().height(), p);
+            } else if (mAtlasEntry != null) {
+                canvas.drawBitmap(mAtlasEntry.bitmap, mAtlasEntry.left,
+                        getBounds().height() + mAtlasEntry.top, mAtlasPaint);
+            } else {
+                canvas.drawText(mText, 0, getBounds().height(), mPaint);
             }
-            canvas.drawText(mText, 0, getBounds().height(), mPaint);
+        } finally {
+            Tracing.endSection();
         }
     }
 
     @Override
     public void setAlpha(int alpha) {
         mPaint.setAlpha(alpha);
+        if (mAtlasEnabled) {
+            mAtlasPaint.setAlpha(alpha);
+        }
     }
 
     @Override
     public void setColorFilter(ColorFilter colorFilter) {
         mPaint.setColorFilter(colorFilter);
+        if (mAtlasEnabled) {
+            mAtlasPaint.setColorFilter(colorFilter);
+        }
     }
 
     @Override
@@ -142,28 +189,77 @@ public class TextDrawable extends Drawable implements TextWatcher {
         }
     }
 
+    /*
+     * Compares the parts of the bound views paint that affect what we draw against the values
+     * seen on the previous call, remembering the new values. Cheap enough to run every frame.
+     */
+    private boolean boundPaintChanged(Paint p) {
+        float textSize = p.getTextSize();
+        Typeface typeface = p.getTypeface();
+        int color = p.getColor();
+        if (textSize == mBoundTextSize && typeface == mBoundTypeface && color == mBoundColor) {
+            return false;
+        }
+        mBoundTextSize = textSize;
+        mBoundTypeface = typeface;
+        mBoundColor = color;
+        return true;
+    }
+
     private void init() {
-        Rect bounds = getBounds();
-        //We want to use some character to determine the max height of the text.
-        //Otherwise if we draw something like "..." they will appear centered
-        //Here I'm just going to use the entire alphabet to determine max height.
-        mPaint.getTextBounds("1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", 0, 1, mHeightBounds);
-        //This doesn't account for leading or training white spaces.
-        //mPaint.getTextBounds(mText, 0, mText.length(), bounds);
-        float width = mPaint.measureText(mText);
-        bounds.top = mHeightBounds.top;
-        bounds.bottom = mHeightBounds.bottom;
-        bounds.right = (int) width;
-        bounds.left = 0;
-        setBounds(bounds);
+        Tracing.beginSection(Tracing.TEXT_DRAWABLE_INIT);
+        try {
+            Rect bounds = getBounds();
+            TextMetricsCache.getHeightBounds(mPaint, mHeightBounds);
+            //This doesn't account for leading or training white spaces.
+            //mPaint.getTextBounds(mText, 0, mText.length(), bounds);
+            float width = measureText();
+            bounds.top = mHeightBounds.top;
+            bounds.bottom = mHeightBounds.bottom;
+            bounds.right = (int) width;
+            bounds.left = 0;
+            setBounds(bounds);
+            if (mAtlasEnabled && !mBindToViewPaint) {
+                mAtlasEntry = GlyphAtlas.obtain(mPaint, mText, width);
+            } else {
+                mAtlasEntry = null;
+            }
+        } finally {
+            Tracing.endSection();
+        }
+    }
+
+    /*
+     * Reuse the last measured width as long as neither the text nor the parts of the paint
+     * that affect its width have changed. Bound drawables get init() on every keystroke.
+     * A new paint can also change letter spacing, locale and so on, so setPaint() clears it.
+     */
+    private float measureText() {
+        if (mMeasuredText == null
+                || !mMeasuredText.equals(mText)
+                || mMeasuredTextSize != mPaint.getTextSize()
+                || mMeasuredTextScaleX != mPaint.getTextScaleX()
+                || mMeasuredFlags != mPaint.getFlags()
+                || mMeasuredTypeface != mPaint.getTypeface()) {
+            mMeasuredWidth = mPaint.measureText(mText);
+            mMeasuredText = mText;
+            mMeasuredTextSize = mPaint.getTextSize();
+            mMeasuredTextScaleX = mPaint.getTextScaleX();
+            mMeasuredFlags = mPaint.getFlags();
+            mMeasuredTypeface = mPaint.getTypeface();
+        }
+        return mMeasuredWidth;
     }
 
     public void setPaint(Paint paint) {
         mPaint = new Paint(paint);
+        mMeasuredText = null;
+        if (mAtlasEnabled) {
+            mAtlasPaint.setAlpha(mPaint.getAlpha());
+            mAtlasPaint.setColorFilter(mPaint.getColorFilter());
+        }
         //Since this can change the font used, we need to recalculate bounds.
-        if (mFitTextEnabled && !mInitFitText) {
-            fitTextAndInit();
-        } else {
+        if (!mFitTextEnabled || !fitTextAndInit()) {
             init();
         }
         invalidateSelf();
@@ -176,9 +272,7 @@ public class TextDrawable extends Drawable implements TextWatcher {
     public void setText(String text) {
         mText = text;
         //Since this can change the bounds of the text, we need to recalculate.
-        if (mFitTextEnabled && !mInitFitText) {
-            fitTextAndInit();
-        } else {
+        if (!mFitTextEnabled || !fitTextAndInit()) {
             init();
         }
         invalidateSelf();
@@ -200,9 +294,45 @@ public class TextDrawable extends Drawable implements TextWatcher {
 
     @Override
     public void afterTextChanged(Editable s) {
+        if (TextUtils.equals(mText, s)) {
+            return;
+        }
         setText(s.toString());
     }
 
+    /**
+     * Draw the text from a bitmap shared with every other TextDrawable drawing the same text with
+     * the same paint, instead of rasterizing it each time. Useful for short text repeated many
+     * times, like currency symbols or units in list rows.
+     * <p>
+     * Note: This option has no effect if bindToViewPaint is true, or if the paint has a shader,
+     * path effect, mask filter or shadow layer, that text is drawn directly.
+     *
+     * @param atlasEnabled whether to draw from the shared bitmaps.
+     */
+    public void setAtlasEnabled(boolean atlasEnabled) {
+        mAtlasEnabled = atlasEnabled;
+        if (atlasEnabled) {
+            if (mAtlasPaint == null) {
+                mAtlasPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            }
+            mAtlasPaint.setAlpha(mPaint.getAlpha());
+            mAtlasPaint.setColorFilter(mPaint.getColorFilter());
+        }
+        init();
+        invalidateSelf();
+    }
+
+    /**
+     * Set how much memory, in bytes, the bitmaps shared by TextDrawables in atlas mode can use.
+     * The least recently used bitmaps are dropped when over the limit. Defaults to 1MB.
+     *
+     * @param maxBytes the memory limit in bytes.
+     */
+    public static void setAtlasMaxBytes(int maxBytes) {
+        GlyphAtlas.setMaxBytes(maxBytes);
+    }
+
     /**
      * Make the TextDrawable match the width of the View it's associated with.
      *
@@ -211,17 +341,25 @@ public class TextDrawable extends Drawable implements TextWatcher {
      * @param fitText whether to auto resize the text.
      */
     public void setFillText(boolean fitText) {
-        mFitTextEnabled = fitText;
+        TextView tv = ref != null ? ref.get() : null;
         if (fitText) {
-            mPrevTextSize = mPaint.getTextSize();
-            if (ref.get() != null) {
-                if (ref.get().getWidth() > 0) {
-                    fitTextAndInit();
-                } else {
-                    mInitFitText = true;
+            if (!mFitTextEnabled) {
+                mPrevTextSize = mPaint.getTextSize();
+            }
+            mFitTextEnabled = true;
+            if (tv != null) {
+                //The text is re-fitted when the width of the view changes, not when drawing.
+                tv.removeOnLayoutChangeListener(mLayoutListener);
+                tv.addOnLayoutChangeListener(mLayoutListener);
+                if (fitTextAndInit()) {
+                    invalidateSelf();
                 }
             }
         } else {
+            mFitTextEnabled = false;
+            if (tv != null) {
+                tv.removeOnLayoutChangeListener(mLayoutListener);
+            }
             if (mPrevTextSize > 0) {
                 mPaint.setTextSize(mPrevTextSize);
             }
@@ -229,13 +367,18 @@ public class TextDrawable extends Drawable implements TextWatcher {
         }
     }
 
-    private void fitTextAndInit() {
-        float fitWidth = ref.get().getWidth();
-        float textWidth = mPaint.measureText(mText);
-        float multi = fitWidth / textWidth;
-        mPaint.setTextSize(mPaint.getTextSize() * multi);
-        mInitFitText = false;
+    /*
+     * Returns false if there is no view to fit to or it hasn't been laid out yet, in which
+     * case the layout listener will fit the text once it has a width.
+     */
+    private boolean fitTextAndInit() {
+        TextView tv = ref != null ? ref.get() : null;
+        if (tv == null || tv.getWidth() <= 0) {
+            return false;
+        }
+        TextMetricsCache.fitTextSize(mPaint, mText, tv.getWidth());
         init();
+        return true;
     }
 
 }
\ No newline at end of file
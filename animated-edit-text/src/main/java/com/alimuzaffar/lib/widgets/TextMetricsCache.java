@@ -0,0 +1,264 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.TextUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the text metrics used by {@link TextDrawable}.
+ * <p>
+ * The vertical bounds of a TextDrawable only depend on the typeface, text size and flags of
+ * its paint, so all drawables sharing a configuration can share a single measurement. The
+ * same goes for the text size that makes a given text fill a given width.
+ */
+final class TextMetricsCache {
+    static final float MIN_FIT_TEXT_SIZE = 1f;
+
+    private static final int MAX_ENTRIES = 32;
+    private static final int MAX_FIT_ENTRIES = 64;
+    private static final int MAX_FIT_ITERATIONS = 8;
+    private static final float FIT_TOLERANCE_PX = 0.5f;
+
+    //We want to use some character to determine the max height of the text.
+    //Otherwise if we draw something like "..." they will appear centered
+    //Here I'm just going to use the entire alphabet to determine max height.
+    private static final String HEIGHT_REFERENCE = "1234567890ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static final Map<PaintKey, Rect> sHeightBounds = new LinkedHashMap<PaintKey, Rect>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PaintKey, Rect> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    //reused for lookups so a cache hit doesn't allocate.
+    private static final PaintKey sProbe = new PaintKey();
+
+    private static final Map<FitKey, Float> sFitSizes = new LinkedHashMap<FitKey, Float>(MAX_FIT_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FitKey, Float> eldest) {
+            return size() > MAX_FIT_ENTRIES;
+        }
+    };
+    private static final FitKey sFitProbe = new FitKey();
+
+    private TextMetricsCache() {
+    }
+
+    /**
+     * Copy the vertical bounds for the given paint configuration into {@code out}, measuring
+     * them only if no other drawable has done so already.
+     *
+     * @param paint the paint the text will be drawn with
+     * @param out   the rect to receive the bounds
+     */
+    static void getHeightBounds(Paint paint, Rect out) {
+        synchronized (sHeightBounds) {
+            sProbe.set(paint);
+            Rect bounds = sHeightBounds.get(sProbe);
+            if (bounds == null) {
+                bounds = new Rect();
+                paint.getTextBounds(HEIGHT_REFERENCE, 0, 1, bounds);
+                sHeightBounds.put(sProbe.copy(), bounds);
+            }
+            out.set(bounds);
+        }
+    }
+
+    /**
+     * Set the text size of {@code paint} to the largest size at which {@code text} fits within
+     * {@code fitWidth}. Text width isn't linear in text size, so rather than scaling by a single
+     * ratio this refines the size a bounded number of times, keeping the bracket of sizes known
+     * to fit and known to overflow. If nothing fits within that budget it keeps halving the size
+     * until the text fits. Only results within the tolerance are memoized, as the others depend
+     * on the size the search started from.
+     *
+     * @param paint    the paint to resize, its current text size is used as the first guess
+     * @param text     the text that should fill the width
+     * @param fitWidth the width to fill
+     */
+    static void fitTextSize(Paint paint, String text, float fitWidth) {
+        if (TextUtils.isEmpty(text) || fitWidth <= 0) {
+            return;
+        }
+        synchronized (sFitSizes) {
+            sFitProbe.set(paint, text, fitWidth);
+            Float cached = sFitSizes.get(sFitProbe);
+            if (cached != null) {
+                paint.setTextSize(cached);
+                return;
+            }
+        }
+
+        float size = paint.getTextSize();
+        float best = 0;
+        float over = Float.MAX_VALUE;
+        boolean converged = false;
+        for (int i = 0; i < MAX_FIT_ITERATIONS; i++) {
+            paint.setTextSize(size);
+            float width = paint.measureText(text);
+            if (width <= fitWidth) {
+                best = size;
+                if (fitWidth - width <= FIT_TOLERANCE_PX) {
+                    converged = true;
+                    break;
+                }
+            } else {
+                over = size;
+            }
+            float next = width > 0 ? size * fitWidth / width : size * 2;
+            if (next <= best || next >= over) {
+                //the proportional guess left the bracket, bisect instead.
+                next = over == Float.MAX_VALUE ? best * 2 : (best + over) / 2;
+            }
+            size = next;
+        }
+        while (best <= 0 && over > MIN_FIT_TEXT_SIZE && over != Float.MAX_VALUE) {
+            //nothing fit within the iteration budget, a size known to overflow is never used.
+            size = Math.max(MIN_FIT_TEXT_SIZE, over / 2);
+            paint.setTextSize(size);
+            if (paint.measureText(text) <= fitWidth) {
+                best = size;
+            } else {
+                over = size;
+            }
+        }
+        if (best <= 0) {
+            //doesn't fit even at the smallest size.
+            best = MIN_FIT_TEXT_SIZE;
+        }
+        paint.setTextSize(best);
+        if (!converged) {
+            return;
+        }
+
+        synchronized (sFitSizes) {
+            sFitSizes.put(new FitKey().set(paint, text, fitWidth), best);
+        }
+    }
+
+    static final class FitKey {
+        String text;
+        float width;
+        Typeface typeface;
+        int flags;
+        float textScaleX;
+        float letterSpacing;
+        Locale textLocale;
+        String fontFeatureSettings;
+
+        FitKey set(Paint paint, String text, float width) {
+            this.text = text;
+            this.width = width;
+            typeface = paint.getTypeface();
+            flags = paint.getFlags();
+            textScaleX = paint.getTextScaleX();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                textLocale = paint.getTextLocale();
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                letterSpacing = paint.getLetterSpacing();
+                fontFeatureSettings = paint.getFontFeatureSettings();
+            }
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FitKey)) {
+                return false;
+            }
+            FitKey other = (FitKey) o;
+            return Float.compare(width, other.width) == 0
+                    && Float.compare(textScaleX, other.textScaleX) == 0
+                    && Float.compare(letterSpacing, other.letterSpacing) == 0
+                    && flags == other.flags
+                    && text.equals(other.text)
+                    && equals(typeface, other.typeface)
+                    && equals(textLocale, other.textLocale)
+                    && equals(fontFeatureSettings, other.fontFeatureSettings);
+        }
+
+        private static boolean equals(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + Float.floatToIntBits(width);
+            result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+            result = 31 * result + flags;
+            result = 31 * result + Float.floatToIntBits(textScaleX);
+            result = 31 * result + Float.floatToIntBits(letterSpacing);
+            result = 31 * result + (textLocale != null ? textLocale.hashCode() : 0);
+            result = 31 * result + (fontFeatureSettings != null ? fontFeatureSettings.hashCode() : 0);
+            return result;
+        }
+    }
+
+    static final class PaintKey {
+        Typeface typeface;
+        float textSize;
+        int flags;
+
+        void set(Paint paint) {
+            typeface = paint.getTypeface();
+            textSize = paint.getTextSize();
+            flags = paint.getFlags();
+        }
+
+        PaintKey copy() {
+            PaintKey key = new PaintKey();
+            key.typeface = typeface;
+            key.textSize = textSize;
+            key.flags = flags;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PaintKey)) {
+                return false;
+            }
+            PaintKey other = (PaintKey) o;
+            return Float.compare(textSize, other.textSize) == 0
+                    && flags == other.flags
+                    && (typeface == null ? other.typeface == null : typeface.equals(other.typeface));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = typeface != null ? typeface.hashCode() : 0;
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + flags;
+            return result;
+        }
+    }
+}
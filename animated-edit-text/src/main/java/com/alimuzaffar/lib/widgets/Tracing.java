@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.os.Build;
+
+import java.lang.reflect.Method;
+
+import androidx.core.os.TraceCompat;
+
+/**
+ * Sections and counters for system traces (systrace / Perfetto), off by default.
+ * <p>
+ * When off, each call is a single check of a static field. Sections must be begun and ended on
+ * the same thread, so only turn tracing on or off from the main thread.
+ *
+ * @see AnimatedEditText#setTracingEnabled(boolean)
+ */
+final class Tracing {
+    static final String ON_DRAW = "AnimatedEditText#onDraw";
+    static final String ON_TEXT_CHANGED = "AnimatedEditText#onTextChanged";
+    static final String ANIMATE_IN_FROM_BOTTOM = "AnimatedEditText#animateInFromBottom";
+    static final String ANIMATE_IN_FROM_RIGHT = "AnimatedEditText#animateInFromRight";
+    static final String ANIMATE_IN_FROM_MIDDLE = "AnimatedEditText#animateInFromMiddle";
+    static final String ANIMATE_POP_IN = "AnimatedEditText#animatePopIn";
+    static final String TEXT_DRAWABLE_DRAW = "TextDrawable#draw";
+    static final String TEXT_DRAWABLE_INIT = "TextDrawable#init";
+    static final String COUNTER_ANIMATIONS = "AnimatedEditText#animations";
+
+    private static boolean sEnabled = false;
+
+    //Trace.setCounter() is API 29, use the method it wraps, like TraceCompat does for sections.
+    private static boolean sCounterLookedUp = false;
+    private static Method sTraceCounter;
+    private static long sTraceTagApp;
+
+    private Tracing() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    static void beginSection(String name) {
+        if (sEnabled) {
+            TraceCompat.beginSection(name);
+        }
+    }
+
+    static void endSection() {
+        if (sEnabled) {
+            TraceCompat.endSection();
+        }
+    }
+
+    static void setCounter(String name, int value) {
+        if (!sEnabled || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return;
+        }
+        if (!sCounterLookedUp) {
+            sCounterLookedUp = true;
+            try {
+                Class<?> trace = Class.forName("android.os.Trace");
+                sTraceTagApp = trace.getField("TRACE_TAG_APP").getLong(null);
+                sTraceCounter = trace.getMethod("traceCounter", long.class, String.class, int.class);
+            } catch (Exception e) {
+                sTraceCounter = null;
+            }
+        }
+        if (sTraceCounter != null) {
+            try {
+                sTraceCounter.invoke(null, sTraceTagApp, name, value);
+            } catch (Exception e) {
+                sTraceCounter = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * An anonymized recording of how text was entered into an {@link AnimatedEditText}. Only the
+ * kind, timing and position of each edit is kept, never the text itself.
+ * <p>
+ * Traces are recorded with a {@link TypingTraceRecorder} and can be written to and read from a
+ * simple line based text format, one edit per line:
+ * <pre>
+ * # typing-trace 1
+ * KEY 180 4 0 1
+ * </pre>
+ * The columns are the kind of edit, the delay since the previous edit in milliseconds, the
+ * start of the edit, the number of characters replaced and the number of characters inserted.
+ */
+public final class TypingTrace {
+    /** A single character typed. */
+    public static final int KIND_KEY = 0;
+    /** Several characters inserted at once, e.g. a paste. */
+    public static final int KIND_PASTE = 1;
+    /** Characters replaced by others, e.g. an auto-correct or auto-suggest. */
+    public static final int KIND_REPLACE = 2;
+    /** Characters removed, e.g. backspace. */
+    public static final int KIND_DELETE = 3;
+    /** The text cleared using setText(null) or setText(""). */
+    public static final int KIND_CLEAR = 4;
+
+    private static final String[] KIND_NAMES = {"KEY", "PASTE", "REPLACE", "DELETE", "CLEAR"};
+    private static final String HEADER = "# typing-trace 1";
+
+    private final int mSize;
+    private final byte[] mKinds;
+    private final long[] mDelays;
+    private final int[] mStarts;
+    private final int[] mLengthsBefore;
+    private final int[] mLengthsAfter;
+
+    TypingTrace(int size, byte[] kinds, long[] delays, int[] starts, int[] lengthsBefore, int[] lengthsAfter) {
+        mSize = size;
+        mKinds = Arrays.copyOf(kinds, size);
+        mDelays = Arrays.copyOf(delays, size);
+        mStarts = Arrays.copyOf(starts, size);
+        mLengthsBefore = Arrays.copyOf(lengthsBefore, size);
+        mLengthsAfter = Arrays.copyOf(lengthsAfter, size);
+    }
+
+    /**
+     * Classify a text change the way the trace records it.
+     */
+    static int kindOf(int lengthBefore, int lengthAfter) {
+        if (lengthBefore == 0) {
+            return lengthAfter == 1 ? KIND_KEY : KIND_PASTE;
+        }
+        return lengthAfter == 0 ? KIND_DELETE : KIND_REPLACE;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return one of the KIND_ constants.
+     */
+    public int getKind(int index) {
+        return mKinds[index];
+    }
+
+    /**
+     * @return the time since the previous edit, in milliseconds.
+     */
+    public long getDelayMillis(int index) {
+        return mDelays[index];
+    }
+
+    public int getStart(int index) {
+        return mStarts[index];
+    }
+
+    public int getLengthBefore(int index) {
+        return mLengthsBefore[index];
+    }
+
+    public int getLengthAfter(int index) {
+        return mLengthsAfter[index];
+    }
+
+    public static String kindToString(int kind) {
+        return KIND_NAMES[kind];
+    }
+
+    /**
+     * Write the trace in its text format.
+     *
+     * @param out where to write the trace, not closed.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write(HEADER);
+        out.write('\n');
+        for (int i = 0; i < mSize; i++) {
+            out.write(KIND_NAMES[mKinds[i]]);
+            out.write(' ');
+            out.write(Long.toString(mDelays[i]));
+            out.write(' ');
+            out.write(Integer.toString(mStarts[i]));
+            out.write(' ');
+            out.write(Integer.toString(mLengthsBefore[i]));
+            out.write(' ');
+            out.write(Integer.toString(mLengthsAfter[i]));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Read a trace written by {@link #writeTo(Writer)}. Empty lines and lines starting with
+     * '#' are ignored.
+     *
+     * @param in where to read the trace from, not closed.
+     * @return the trace.
+     * @throws IOException if reading fails or the trace is malformed, including negative delays,
+     *                     starts or lengths.
+     */
+    public static TypingTrace readFrom(Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        TypingTraceRecorder recorder = new TypingTraceRecorder(Integer.MAX_VALUE);
+        long time = 0;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\\s+");
+            if (columns.length != 5) {
+                throw new IOException("Malformed typing trace at line " + lineNumber + ": " + line);
+            }
+            int kind = Arrays.asList(KIND_NAMES).indexOf(columns[0]);
+            if (kind < 0) {
+                throw new IOException("Unknown edit kind at line " + lineNumber + ": " + columns[0]);
+            }
+            long delay;
+            int start;
+            int lengthBefore;
+            int lengthAfter;
+            try {
+                delay = Long.parseLong(columns[1]);
+                start = Integer.parseInt(columns[2]);
+                lengthBefore = Integer.parseInt(columns[3]);
+                lengthAfter = Integer.parseInt(columns[4]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed typing trace at line " + lineNumber + ": " + line, e);
+            }
+            if (delay < 0 || start < 0 || lengthBefore < 0 || lengthAfter < 0) {
+                throw new IOException("Negative value in typing trace at line " + lineNumber + ": " + line);
+            }
+            time += delay;
+            recorder.record(kind, time, start, lengthBefore, lengthAfter);
+        }
+        return recorder.getTrace();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import java.util.Arrays;
+
+/**
+ * Records a {@link TypingTrace} of the edits made to an {@link AnimatedEditText}.
+ * <p>
+ * Recording is cheap enough to leave on in production builds, edits are kept in primitive
+ * arrays and nothing but the kind, timing and position of each edit is recorded. Once the
+ * maximum number of edits is reached, further edits are ignored.
+ *
+ * @see AnimatedEditText#setTypingTraceRecorder(TypingTraceRecorder)
+ */
+public class TypingTraceRecorder {
+    public static final int DEFAULT_MAX_EDITS = 10000;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int mMaxEdits;
+    private int mSize = 0;
+    private long mLastTime = -1;
+    private byte[] mKinds = new byte[INITIAL_CAPACITY];
+    private long[] mDelays = new long[INITIAL_CAPACITY];
+    private int[] mStarts = new int[INITIAL_CAPACITY];
+    private int[] mLengthsBefore = new int[INITIAL_CAPACITY];
+    private int[] mLengthsAfter = new int[INITIAL_CAPACITY];
+
+    public TypingTraceRecorder() {
+        this(DEFAULT_MAX_EDITS);
+    }
+
+    /**
+     * @param maxEdits the maximum number of edits to record.
+     */
+    public TypingTraceRecorder(int maxEdits) {
+        mMaxEdits = maxEdits;
+    }
+
+    void recordTextChange(long timeMillis, int start, int lengthBefore, int lengthAfter) {
+        if (lengthBefore == 0 && lengthAfter == 0) {
+            //nothing changed, e.g. an empty field was set to empty text.
+            return;
+        }
+        record(TypingTrace.kindOf(lengthBefore, lengthAfter), timeMillis, start, lengthBefore, lengthAfter);
+    }
+
+    void recordClear(long timeMillis, int length) {
+        record(TypingTrace.KIND_CLEAR, timeMillis, 0, length, 0);
+    }
+
+    void record(int kind, long timeMillis, int start, int lengthBefore, int lengthAfter) {
+        if (mSize >= mMaxEdits) {
+            return;
+        }
+        if (mSize == mKinds.length) {
+            int capacity = (int) Math.min((long) mMaxEdits, mSize * 2L);
+            mKinds = Arrays.copyOf(mKinds, capacity);
+            mDelays = Arrays.copyOf(mDelays, capacity);
+            mStarts = Arrays.copyOf(mStarts, capacity);
+            mLengthsBefore = Arrays.copyOf(mLengthsBefore, capacity);
+            mLengthsAfter = Arrays.copyOf(mLengthsAfter, capacity);
+        }
+        mKinds[mSize] = (byte) kind;
+        mDelays[mSize] = mLastTime < 0 ? 0 : timeMillis - mLastTime;
+        mStarts[mSize] = start;
+        mLengthsBefore[mSize] = lengthBefore;
+        mLengthsAfter[mSize] = lengthAfter;
+        mLastTime = timeMillis;
+        mSize++;
+    }
+
+    /**
+     * @return the number of edits recorded so far.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return a copy of the edits recorded so far.
+     */
+    public TypingTrace getTrace() {
+        return new TypingTrace(mSize, mKinds, mDelays, mStarts, mLengthsBefore, mLengthsAfter);
+    }
+
+    /**
+     * Forget all the edits recorded so far.
+     */
+    public void reset() {
+        mSize = 0;
+        mLastTime = -1;
+    }
+}
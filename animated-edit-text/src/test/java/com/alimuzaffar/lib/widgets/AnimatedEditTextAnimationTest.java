@@ -0,0 +1,187 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.OvershootInterpolator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Steps the animation of a keystroke frame by frame for each animation type and checks its
+ * start, middle and end values. The expected values go through the same interpolators as the
+ * animations do.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AnimatedEditTextAnimationTest {
+    private static final float DELTA = 0.001f;
+    private static final int OPAQUE = 255;
+
+    @Before
+    public void setUp() throws Exception {
+        TestViews.setDurationScale(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestViews.setDurationScale(1);
+    }
+
+    @Test
+    public void bottomUp() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+        float height = textHeight(view);
+
+        view.getText().append("a");
+        assertTrue(view.isAnimating());
+        assertEquals(height, view.getAnimBottomOffset(), DELTA);
+        assertEquals(0, view.getAnimAlpha());
+
+        TestViews.stepToPlayTime(view, 150);
+        float up = new OvershootInterpolator().getInterpolation(150f / 300);
+        float alpha = new AccelerateDecelerateInterpolator().getInterpolation(150f / 300);
+        assertEquals(height - height * up, view.getAnimBottomOffset(), DELTA);
+        assertEquals((int) (alpha * OPAQUE), view.getAnimAlpha());
+
+        TestViews.stepUntilIdle(view);
+        assertFalse(view.isAnimating());
+        assertEquals(0, view.getAnimBottomOffset(), DELTA);
+        assertEquals(OPAQUE, view.getAnimAlpha());
+    }
+
+    @Test
+    public void rightToLeft() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.RIGHT_TO_LEFT, false);
+        float width = view.getResources().getDisplayMetrics().widthPixels;
+
+        view.getText().append("a");
+        assertTrue(view.isAnimating());
+        assertEquals(width, view.getAnimRightOffset(), DELTA);
+
+        TestViews.stepToPlayTime(view, 150);
+        float left = new DecelerateInterpolator().getInterpolation(150f / 300);
+        assertEquals(width - width * left, view.getAnimRightOffset(), DELTA);
+
+        TestViews.stepUntilIdle(view);
+        assertFalse(view.isAnimating());
+        assertEquals(0, view.getAnimRightOffset(), DELTA);
+    }
+
+    @Test
+    public void middleUp() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.MIDDLE_UP, false);
+        float height = textHeight(view);
+        //nothing before the typed character, it moves from the middle to the start.
+        float middle = view.getWidth() / 2;
+
+        view.getText().append("a");
+        assertTrue(view.isAnimating());
+        assertEquals(middle, view.getAnimRightOffset(), DELTA);
+        assertEquals(height, view.getAnimBottomOffset(), DELTA);
+        assertEquals(0, view.getAnimAlpha());
+
+        TestViews.stepToPlayTime(view, 100);
+        float left = new DecelerateInterpolator().getInterpolation(100f / 200);
+        float up = new AccelerateDecelerateInterpolator().getInterpolation(100f / 200);
+        float alpha = new AccelerateDecelerateInterpolator().getInterpolation(100f / 300);
+        assertEquals(middle - middle * left, view.getAnimRightOffset(), DELTA);
+        assertEquals(height - height * up, view.getAnimBottomOffset(), DELTA);
+        assertEquals((int) (alpha * OPAQUE), view.getAnimAlpha());
+
+        TestViews.stepUntilIdle(view);
+        assertFalse(view.isAnimating());
+        assertEquals(0, view.getAnimRightOffset(), DELTA);
+        assertEquals(0, view.getAnimBottomOffset(), DELTA);
+        assertEquals(OPAQUE, view.getAnimAlpha());
+    }
+
+    @Test
+    public void popIn() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.POP_IN, false);
+        float textSize = view.getPaint().getTextSize();
+
+        view.getText().append("a");
+        assertTrue(view.isAnimating());
+        assertEquals(1, view.getAnimTextSize(), DELTA);
+
+        TestViews.stepToPlayTime(view, 100);
+        float pop = new OvershootInterpolator().getInterpolation(100f / 200);
+        assertEquals(1 + (textSize - 1) * pop, view.getAnimTextSize(), DELTA);
+
+        TestViews.stepUntilIdle(view);
+        assertFalse(view.isAnimating());
+        assertEquals(textSize, view.getAnimTextSize(), DELTA);
+    }
+
+    @Test
+    public void animationsOffJumpsToTheEnd() throws Exception {
+        TestViews.setDurationScale(0);
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+
+        view.getText().append("a");
+        assertFalse(view.isAnimating());
+        assertFalse(TestViews.clock(view).hasPendingFrame());
+        assertEquals(0, view.getAnimBottomOffset(), DELTA);
+        assertEquals(OPAQUE, view.getAnimAlpha());
+    }
+
+    @Test
+    public void durationScaleStretchesTheAnimation() throws Exception {
+        TestViews.setDurationScale(2);
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.RIGHT_TO_LEFT, false);
+        float width = view.getResources().getDisplayMetrics().widthPixels;
+
+        view.getText().append("a");
+        //300ms of animation take 600ms.
+        TestViews.stepToPlayTime(view, 300);
+        float left = new DecelerateInterpolator().getInterpolation(150f / 300);
+        assertEquals(width - width * left, view.getAnimRightOffset(), DELTA);
+        assertTrue(view.isAnimating());
+    }
+
+    @Test
+    public void switchingClockCarriesOn() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.RIGHT_TO_LEFT, false);
+        view.getText().append("a");
+        TestViews.stepToPlayTime(view, 150);
+        float offset = view.getAnimRightOffset();
+
+        //a clock that starts at 0, far behind the time the animation started at.
+        ManualAnimationClock clock = new ManualAnimationClock(TestViews.FRAME_INTERVAL_MS);
+        view.setAnimationClock(clock);
+        clock.stepFrame();
+        assertEquals(offset, view.getAnimRightOffset(), DELTA);
+
+        clock.stepFrames(3);
+        assertFalse(view.isAnimating());
+        assertEquals(0, view.getAnimRightOffset(), DELTA);
+    }
+
+    private static float textHeight(AnimatedEditText view) {
+        return view.getHeight() - view.getCompoundPaddingBottom() - view.getCompoundPaddingTop();
+    }
+}
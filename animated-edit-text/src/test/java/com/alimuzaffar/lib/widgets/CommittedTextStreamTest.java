@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CommittedTextStreamTest {
+    private final List<String> mCommitted = new ArrayList<>();
+    private final AnimatedEditText.OnTextCommittedListener mListener = new AnimatedEditText.OnTextCommittedListener() {
+        @Override
+        public void onTextCommitted(String text) {
+            mCommitted.add(text);
+        }
+    };
+
+    @Test
+    public void editsAreCoalescedUntilTheDebounceTime() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.NONE, false);
+        ManualAnimationClock clock = TestViews.clock(view);
+        view.addOnTextCommittedListener(mListener, 300, null);
+
+        view.getText().append("a");
+        clock.advanceTimeBy(100);
+        view.getText().append("b");
+        clock.advanceTimeBy(299);
+        assertEquals(Collections.<String>emptyList(), mCommitted);
+
+        clock.advanceTimeBy(1);
+        assertEquals(Collections.singletonList("ab"), mCommitted);
+    }
+
+    @Test
+    public void waitsForTheAnimationToEnd() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+        ManualAnimationClock clock = TestViews.clock(view);
+        view.addOnTextCommittedListener(mListener, 100, null);
+
+        view.getText().append("a");
+        clock.advanceTimeBy(300);
+        assertEquals(Collections.<String>emptyList(), mCommitted);
+
+        TestViews.stepUntilIdle(view);
+        clock.advanceTimeBy(100);
+        assertEquals(Collections.singletonList("a"), mCommitted);
+    }
+
+    @Test
+    public void sameTextIsNotDeliveredTwice() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.NONE, false);
+        ManualAnimationClock clock = TestViews.clock(view);
+        view.addOnTextCommittedListener(mListener, 100, null);
+
+        view.getText().append("a");
+        clock.advanceTimeBy(100);
+        view.getText().append("b");
+        clock.advanceTimeBy(100);
+        view.getText().delete(1, 2);
+        clock.advanceTimeBy(100);
+        view.getText().append("b");
+        clock.advanceTimeBy(100);
+        assertEquals(Arrays.asList("a", "ab", "a", "ab"), mCommitted);
+
+        view.getText().replace(1, 2, "b");
+        clock.advanceTimeBy(100);
+        assertEquals(Arrays.asList("a", "ab", "a", "ab"), mCommitted);
+    }
+
+    @Test
+    public void deliversOnTheExecutor() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.NONE, false);
+        ManualAnimationClock clock = TestViews.clock(view);
+        final List<Runnable> queued = new ArrayList<>();
+        view.addOnTextCommittedListener(mListener, 100, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        });
+
+        view.getText().append("a");
+        clock.advanceTimeBy(100);
+        assertEquals(1, queued.size());
+        assertEquals(Collections.<String>emptyList(), mCommitted);
+
+        queued.get(0).run();
+        assertEquals(Collections.singletonList("a"), mCommitted);
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.NONE, false);
+        ManualAnimationClock clock = TestViews.clock(view);
+        view.addOnTextCommittedListener(mListener, 100, null);
+
+        view.getText().append("a");
+        view.removeOnTextCommittedListener(mListener);
+        clock.advanceTimeBy(100);
+        assertEquals(Collections.<String>emptyList(), mCommitted);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Paint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class GlyphAtlasTest {
+    private static final float WIDTH = 20;
+
+    @Before
+    public void clearAtlas() {
+        GlyphAtlas.setMaxBytes(0);
+        GlyphAtlas.setMaxBytes(GlyphAtlas.DEFAULT_MAX_BYTES);
+    }
+
+    @After
+    public void restoreMaxBytes() {
+        GlyphAtlas.setMaxBytes(GlyphAtlas.DEFAULT_MAX_BYTES);
+    }
+
+    @Test
+    public void alphaVariantsShareOneEntry() {
+        Paint opaque = newPaint();
+        Paint translucent = newPaint();
+        translucent.setAlpha(64);
+
+        GlyphAtlas.Entry entry = GlyphAtlas.obtain(opaque, "ab", WIDTH);
+        assertNotNull(entry);
+        assertSame(entry, GlyphAtlas.obtain(translucent, "ab", WIDTH));
+    }
+
+    @Test
+    public void paintsThatRenderDifferentlyGetTheirOwnEntries() {
+        GlyphAtlas.Entry entry = GlyphAtlas.obtain(newPaint(), "ab", WIDTH);
+
+        Paint stroke = newPaint();
+        stroke.setStyle(Paint.Style.STROKE);
+        assertNotSame(entry, GlyphAtlas.obtain(stroke, "ab", WIDTH));
+
+        Paint spaced = newPaint();
+        spaced.setLetterSpacing(0.1f);
+        assertNotSame(entry, GlyphAtlas.obtain(spaced, "ab", WIDTH));
+
+        Paint thick = newPaint();
+        thick.setStrokeWidth(3);
+        assertNotSame(entry, GlyphAtlas.obtain(thick, "ab", WIDTH));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntryOverTheLimit() {
+        Paint paint = newPaint();
+        GlyphAtlas.Entry first = GlyphAtlas.obtain(paint, "ab", WIDTH);
+        GlyphAtlas.Entry second = GlyphAtlas.obtain(paint, "cd", WIDTH);
+        //texts of the same length and width get bitmaps of the same size, room for two.
+        GlyphAtlas.setMaxBytes(2 * first.bitmap.getByteCount());
+
+        //using the first entry makes the second the least recently used.
+        assertSame(first, GlyphAtlas.obtain(paint, "ab", WIDTH));
+        GlyphAtlas.Entry third = GlyphAtlas.obtain(paint, "ef", WIDTH);
+        assertNotNull(third);
+        assertSame(first, GlyphAtlas.obtain(paint, "ab", WIDTH));
+        assertSame(third, GlyphAtlas.obtain(paint, "ef", WIDTH));
+        assertNotSame(second, GlyphAtlas.obtain(paint, "cd", WIDTH));
+    }
+
+    @Test
+    public void lowerLimitEvictsImmediately() {
+        Paint paint = newPaint();
+        GlyphAtlas.Entry entry = GlyphAtlas.obtain(paint, "ab", WIDTH);
+        GlyphAtlas.setMaxBytes(entry.bitmap.getByteCount());
+        assertSame(entry, GlyphAtlas.obtain(paint, "ab", WIDTH));
+
+        GlyphAtlas.setMaxBytes(entry.bitmap.getByteCount() - 1);
+        GlyphAtlas.setMaxBytes(GlyphAtlas.DEFAULT_MAX_BYTES);
+        assertNotSame(entry, GlyphAtlas.obtain(paint, "ab", WIDTH));
+    }
+
+    @Test
+    public void returnsNullForABitmapLargerThanTheLimit() {
+        Paint paint = newPaint();
+        GlyphAtlas.Entry entry = GlyphAtlas.obtain(paint, "ab", WIDTH);
+        GlyphAtlas.setMaxBytes(entry.bitmap.getByteCount() - 1);
+
+        assertNull(GlyphAtlas.obtain(paint, "cd", WIDTH));
+    }
+
+    private static Paint newPaint() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(40);
+        paint.setColor(0xff336699);
+        return paint;
+    }
+}
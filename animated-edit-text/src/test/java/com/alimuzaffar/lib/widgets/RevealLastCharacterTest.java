@@ -0,0 +1,110 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RevealLastCharacterTest {
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void typedCharacterMorphsIntoTheMask() {
+        AnimatedEditText view = newRevealingEditText();
+        ManualAnimationClock clock = TestViews.clock(view);
+
+        view.getText().append("a");
+        assertEquals(0, view.getRevealedIndex());
+        clock.advanceTimeBy(1499);
+        assertEquals(0, view.getRevealedIndex());
+        assertEquals(0, view.getRevealMorph(), DELTA);
+
+        //the morph starts at the deadline and takes 150ms.
+        clock.advanceTimeBy(1);
+        clock.advanceTimeBy(100);
+        assertEquals(0, view.getRevealedIndex());
+        float morph = view.getRevealMorph();
+        assertTrue(morph > 0 && morph < 1);
+
+        clock.advanceTimeBy(100);
+        assertEquals(-1, view.getRevealedIndex());
+    }
+
+    @Test
+    public void typingPushesTheDeadlineBack() {
+        AnimatedEditText view = newRevealingEditText();
+        ManualAnimationClock clock = TestViews.clock(view);
+
+        view.getText().append("a");
+        clock.advanceTimeBy(1000);
+        view.getText().append("b");
+        assertEquals(1, view.getRevealedIndex());
+
+        clock.advanceTimeBy(1499);
+        assertEquals(1, view.getRevealedIndex());
+        assertEquals(0, view.getRevealMorph(), DELTA);
+
+        clock.advanceTimeBy(300);
+        assertEquals(-1, view.getRevealedIndex());
+    }
+
+    @Test
+    public void otherEditsHideTheCharacter() {
+        AnimatedEditText view = newRevealingEditText();
+
+        view.getText().append("ab");
+        view.getText().append("c");
+        assertEquals(2, view.getRevealedIndex());
+
+        view.getText().delete(2, 3);
+        assertEquals(-1, view.getRevealedIndex());
+    }
+
+    @Test
+    public void deadlineMovesToTheNewClock() {
+        AnimatedEditText view = newRevealingEditText();
+        ManualAnimationClock previous = TestViews.clock(view);
+        previous.advanceTimeBy(1000);
+
+        view.getText().append("a");
+        previous.advanceTimeBy(1000);
+        ManualAnimationClock clock = new ManualAnimationClock(TestViews.FRAME_INTERVAL_MS);
+        view.setAnimationClock(clock);
+        assertFalse(previous.hasPendingRunnables());
+
+        //500ms were left before the morph.
+        clock.advanceTimeBy(499);
+        assertEquals(0, view.getRevealedIndex());
+        assertEquals(0, view.getRevealMorph(), DELTA);
+
+        clock.advanceTimeBy(300);
+        assertEquals(-1, view.getRevealedIndex());
+    }
+
+    private static AnimatedEditText newRevealingEditText() {
+        AnimatedEditText view = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, true);
+        view.setRevealLastCharacter(true);
+        return view;
+    }
+}
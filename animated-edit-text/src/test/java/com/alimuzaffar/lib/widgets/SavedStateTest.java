@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.os.Parcelable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SavedStateTest {
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void restoresIntoASettledFrame() {
+        AnimatedEditText saved = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, true);
+        saved.setText("abc");
+        TestViews.stepToPlayTime(saved, 100);
+        Parcelable state = saved.onSaveInstanceState();
+
+        AnimatedEditText restored = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, true);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals("abc", restored.getText().toString());
+        assertFalse(restored.isAnimating());
+        assertFalse(TestViews.clock(restored).hasPendingFrame());
+        assertEquals(0, restored.getAnimBottomOffset(), DELTA);
+        assertEquals(0, restored.getAnimRightOffset(), DELTA);
+        assertEquals(255, restored.getAnimAlpha());
+        //all of the text is in place, none of it is animating in.
+        assertEquals("", restored.getFixedText());
+        assertEquals("***", restored.getAnimText());
+        assertEquals("***", restored.getMaskChars().toString());
+    }
+
+    @Test
+    public void textBeingClearedIsNotRestored() {
+        AnimatedEditText saved = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+        saved.setText("abc");
+        TestViews.stepUntilIdle(saved);
+        saved.setText("");
+        //the clear animation is still running, the text is only removed once it ends.
+        assertTrue(saved.isAnimating());
+        assertEquals("abc", saved.getText().toString());
+        Parcelable state = saved.onSaveInstanceState();
+
+        AnimatedEditText restored = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals("", restored.getText().toString());
+        assertFalse(restored.isAnimating());
+    }
+
+    @Test
+    public void restoringIsNotRecordedAsTyping() {
+        AnimatedEditText saved = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+        saved.setText("abc");
+        Parcelable state = saved.onSaveInstanceState();
+
+        AnimatedEditText restored = TestViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, false);
+        TypingTraceRecorder recorder = new TypingTraceRecorder();
+        restored.setTypingTraceRecorder(recorder);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals(0, recorder.size());
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.text.InputType;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import org.robolectric.Robolectric;
+
+import androidx.test.core.app.ApplicationProvider;
+
+/**
+ * Creates laid out fields driven by a {@link ManualAnimationClock} for the tests.
+ */
+final class TestViews {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 160;
+    static final long FRAME_INTERVAL_MS = 50;
+    static final String MASK = "*";
+
+    private TestViews() {
+    }
+
+    static Context context() {
+        return new ContextThemeWrapper(ApplicationProvider.<Context>getApplicationContext(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light);
+    }
+
+    /**
+     * The text color is opaque so the animated alpha goes from 0 to 255.
+     */
+    static AnimatedEditText newEditText(AnimatedEditText.AnimationType animationType, boolean masked) {
+        Robolectric.AttributeSetBuilder attrs = Robolectric.buildAttributeSet()
+                .addAttribute(android.R.attr.textColor, "#ff000000");
+        if (masked) {
+            attrs.addAttribute(R.attr.textMask, MASK);
+        }
+        AnimatedEditText view = new AnimatedEditText(context(), attrs.build());
+        view.setAnimationClock(new ManualAnimationClock(FRAME_INTERVAL_MS));
+        if (masked) {
+            view.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_PASSWORD);
+        }
+        view.setAnimationType(animationType);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+        return view;
+    }
+
+    static ManualAnimationClock clock(AnimatedEditText view) {
+        return (ManualAnimationClock) view.getAnimationClock();
+    }
+
+    /**
+     * Step frames until the animations have played for the given time. The first frame of an
+     * animation is its start, so it takes one more frame than the time suggests.
+     */
+    static void stepToPlayTime(AnimatedEditText view, long playTime) {
+        clock(view).stepFrames((int) (playTime / FRAME_INTERVAL_MS) + 1);
+    }
+
+    static void stepUntilIdle(AnimatedEditText view) {
+        ManualAnimationClock clock = clock(view);
+        for (int i = 0; i < 100 && clock.hasPendingFrame(); i++) {
+            clock.stepFrame();
+        }
+    }
+
+    /**
+     * The animator duration scale is a hidden test API, as set by the developer options.
+     */
+    static void setDurationScale(float scale) throws Exception {
+        ValueAnimator.class.getMethod("setDurationScale", float.class).invoke(null, scale);
+    }
+}
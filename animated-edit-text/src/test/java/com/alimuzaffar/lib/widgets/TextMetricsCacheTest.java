@@ -0,0 +1,130 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Paint;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class TextMetricsCacheTest {
+    private static final float FIT_WIDTH = 100;
+    private static final float DELTA = 0.001f;
+
+    //fitted sizes are memoized process-wide, so every test fits a text of its own.
+
+    @Test
+    public void convergesWithinToleranceAndMemoizes() {
+        ScaledPaint paint = new ScaledPaint(0, 1.3f);
+        paint.setTextSize(40);
+        TextMetricsCache.fitTextSize(paint, "abcd", FIT_WIDTH);
+        float fitted = paint.getTextSize();
+        float width = paint.measureText("abcd");
+        assertTrue(width <= FIT_WIDTH);
+        assertTrue(width >= FIT_WIDTH - 0.5f);
+
+        paint.setTextSize(100);
+        paint.mMeasuredSizes.clear();
+        TextMetricsCache.fitTextSize(paint, "abcd", FIT_WIDTH);
+        assertEquals(fitted, paint.getTextSize(), DELTA);
+        assertTrue(paint.mMeasuredSizes.isEmpty());
+    }
+
+    @Test
+    public void unconvergedSizeIsNotMemoized() {
+        //width grows with the square of the size, from 40 the budget runs out before converging.
+        ScaledPaint paint = new ScaledPaint(0, 2);
+        paint.setTextSize(40);
+        TextMetricsCache.fitTextSize(paint, "efgh", FIT_WIDTH);
+        float unconverged = paint.getTextSize();
+        assertTrue(paint.measureText("efgh") < FIT_WIDTH - 0.5f);
+
+        //a better first guess converges instead of getting the size found before.
+        paint.setTextSize(12);
+        paint.mMeasuredSizes.clear();
+        TextMetricsCache.fitTextSize(paint, "efgh", FIT_WIDTH);
+        assertFalse(paint.mMeasuredSizes.isEmpty());
+        assertTrue(paint.getTextSize() > unconverged);
+        assertTrue(paint.measureText("efgh") >= FIT_WIDTH - 0.5f);
+    }
+
+    @Test
+    public void halvesTheSizeWhenNothingFitsWithinTheBudget() {
+        //a fixed overhead close to the width makes every proportional guess overflow.
+        ScaledPaint paint = new ScaledPaint(90, 1.2f);
+        paint.setTextSize(1000);
+        TextMetricsCache.fitTextSize(paint, "ijkl", FIT_WIDTH);
+        float fitted = paint.getTextSize();
+        List<Float> sizes = new ArrayList<>(paint.mMeasuredSizes);
+        assertTrue(fitted > TextMetricsCache.MIN_FIT_TEXT_SIZE);
+        assertTrue(paint.measureText("ijkl") <= FIT_WIDTH);
+
+        //the size applied is half of the last one measured to overflow.
+        float lastOver = sizes.get(sizes.size() - 2);
+        assertEquals(fitted, sizes.get(sizes.size() - 1), DELTA);
+        assertEquals(lastOver / 2, fitted, DELTA);
+        paint.setTextSize(lastOver);
+        assertTrue(paint.measureText("ijkl") > FIT_WIDTH);
+    }
+
+    @Test
+    public void fallsBackToTheMinimumSizeWhenNothingFits() {
+        ScaledPaint paint = new ScaledPaint(200, 1.5f);
+        paint.setTextSize(40);
+        TextMetricsCache.fitTextSize(paint, "mnop", FIT_WIDTH);
+        assertEquals(TextMetricsCache.MIN_FIT_TEXT_SIZE, paint.getTextSize(), DELTA);
+
+        //not memoized either, it's not a size that fits.
+        paint.setTextSize(40);
+        paint.mMeasuredSizes.clear();
+        TextMetricsCache.fitTextSize(paint, "mnop", FIT_WIDTH);
+        assertFalse(paint.mMeasuredSizes.isEmpty());
+        assertEquals(TextMetricsCache.MIN_FIT_TEXT_SIZE, paint.getTextSize(), DELTA);
+    }
+
+    /*
+     * Robolectric measures text without looking at the size, this paint makes the width a
+     * fixed overhead plus a power of the size for each character, and records every size
+     * it was measured at.
+     */
+    private static final class ScaledPaint extends Paint {
+        final List<Float> mMeasuredSizes = new ArrayList<>();
+        private final float mOverhead;
+        private final float mExponent;
+
+        ScaledPaint(float overhead, float exponent) {
+            mOverhead = overhead;
+            mExponent = exponent;
+        }
+
+        @Override
+        public float measureText(String text) {
+            mMeasuredSizes.add(getTextSize());
+            return mOverhead + text.length() * (float) Math.pow(getTextSize(), mExponent);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.Gravity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A keystroke followed by every frame of the animation it starts, stepped on a
+ * {@link ManualAnimationClock} and drawn after each frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimationFrameBenchmark {
+    private static final String TEXT = "hello world";
+
+    @Param({"POP_IN", "BOTTOM_UP", "RIGHT_TO_LEFT", "MIDDLE_UP"})
+    public AnimatedEditText.AnimationType animationType;
+
+    private AnimatedEditText mView;
+    private ManualAnimationClock mClock;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    @Setup
+    public void setup() {
+        mView = BenchmarkViews.newEditText(animationType, false, Gravity.LEFT);
+        mClock = (ManualAnimationClock) mView.getAnimationClock();
+        mView.setText(TEXT);
+        mBitmap = Bitmap.createBitmap(BenchmarkViews.WIDTH, BenchmarkViews.HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+
+    @Setup(Level.Iteration)
+    public void newCanvas() {
+        //Robolectric's canvas keeps a history of what was drawn, don't let it grow for too long.
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    @Benchmark
+    public long keyTypedAndAnimated() {
+        mView.onTextChanged(TEXT, TEXT.length() - 1, 0, 1);
+        while (mClock.hasPendingFrame()) {
+            mClock.stepFrame();
+            mView.onDraw(mCanvas);
+        }
+        return mClock.getFrameCount();
+    }
+}
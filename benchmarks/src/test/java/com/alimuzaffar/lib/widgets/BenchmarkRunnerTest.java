@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+/**
+ * Runs the JMH benchmarks on the JVM, with Robolectric supplying the Android framework.
+ * <p>
+ * JMH can't fork here, the forked JVM wouldn't have the Robolectric sandbox, so the benchmarks
+ * run in-process on the sandbox's class loader. Results are written as JSON to the file in the
+ * {@code jmh.resultFile} system property, set up by the benchmarks build.gradle.
+ * <p>
+ * Note: Robolectric replaces native text measurement and rendering with shadows, the numbers
+ * reflect the work done by the widget itself rather than by Skia.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BenchmarkRunnerTest {
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        Assume.assumeTrue(Boolean.getBoolean("jmh.enabled"));
+        File resultFile = new File(System.getProperty("jmh.resultFile", "build/reports/jmh/results.json"));
+        //noinspection ResultOfMethodCallIgnored
+        resultFile.getParentFile().mkdirs();
+
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", ".*Benchmark.*"))
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.getAbsolutePath())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.content.Context;
+import android.os.Looper;
+import android.text.InputType;
+import android.util.AttributeSet;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import org.robolectric.Robolectric;
+
+import androidx.test.core.app.ApplicationProvider;
+
+/**
+ * Creates measured and laid out views for the benchmarks.
+ * <p>
+ * JMH calls setup and benchmark methods on its own worker threads, even when it doesn't fork.
+ * Those threads have no Looper, so views are created with a {@link ManualAnimationClock} rather
+ * than the Choreographer, and a Looper is prepared for anything else in the framework that
+ * needs one.
+ */
+final class BenchmarkViews {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 160;
+    static final String MASK = "\u25CF";
+
+    private BenchmarkViews() {
+    }
+
+    static Context context() {
+        if (Looper.myLooper() == null) {
+            Looper.prepare();
+        }
+        return new ContextThemeWrapper(ApplicationProvider.<Context>getApplicationContext(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light);
+    }
+
+    static AnimatedEditText newEditText(AnimatedEditText.AnimationType animationType, boolean masked, int gravity) {
+        AttributeSet attrs = masked
+                ? Robolectric.buildAttributeSet().addAttribute(R.attr.textMask, MASK).build()
+                : Robolectric.buildAttributeSet().build();
+        AnimatedEditText view = new AnimatedEditText(context(), attrs);
+        //before any text is set, setting text may start an animation.
+        view.setAnimationClock(new ManualAnimationClock());
+        if (masked) {
+            view.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_PASSWORD);
+        }
+        view.setAnimationType(animationType);
+        view.setGravity(gravity);
+        layout(view);
+        return view;
+    }
+
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    static String text(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.Gravity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single onDraw, the work done on every frame of an animation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrawBenchmark {
+    @Param({"LEFT", "RIGHT", "CENTER_HORIZONTAL"})
+    public String gravity;
+
+    @Param({"false", "true"})
+    public boolean masked;
+
+    private AnimatedEditText mView;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    @Setup
+    public void setup() throws Exception {
+        int g = Gravity.class.getField(gravity).getInt(null);
+        mView = BenchmarkViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, masked, g);
+        mView.setText(BenchmarkViews.text(16));
+        mBitmap = Bitmap.createBitmap(BenchmarkViews.WIDTH, BenchmarkViews.HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+
+    @Setup(Level.Iteration)
+    public void newCanvas() {
+        //Robolectric's canvas keeps a history of what was drawn, don't let it grow for too long.
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    @Benchmark
+    public void onDraw() {
+        mView.onDraw(mCanvas);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.view.Gravity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mask buffer and the fixed / animated text extraction, all of which run on every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MaskBenchmark {
+    @Param({"false", "true"})
+    public boolean masked;
+
+    @Param({"8", "64"})
+    public int length;
+
+    private AnimatedEditText mView;
+
+    @Setup
+    public void setup() {
+        mView = BenchmarkViews.newEditText(AnimatedEditText.AnimationType.BOTTOM_UP, masked, Gravity.LEFT);
+        mView.setText(BenchmarkViews.text(length));
+    }
+
+    @Benchmark
+    public StringBuilder maskChars() {
+        return mView.getMaskChars();
+    }
+
+    @Benchmark
+    public String fixedText() {
+        return mView.getFixedText();
+    }
+
+    @Benchmark
+    public String animText() {
+        return mView.getAnimText();
+    }
+}
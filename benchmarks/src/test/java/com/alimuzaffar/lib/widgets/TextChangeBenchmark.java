@@ -0,0 +1,68 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.view.Gravity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * onTextChanged for the edits the keyboard produces. Computing the range to animate also
+ * cancels the running animation and sets up the next one, so that is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextChangeBenchmark {
+    private static final String TEXT = "hello world";
+
+    @Param({"POP_IN", "BOTTOM_UP", "RIGHT_TO_LEFT", "MIDDLE_UP"})
+    public AnimatedEditText.AnimationType animationType;
+
+    private AnimatedEditText mView;
+
+    @Setup
+    public void setup() {
+        mView = BenchmarkViews.newEditText(animationType, false, Gravity.LEFT);
+        mView.setText(TEXT);
+    }
+
+    @Benchmark
+    public void keyTyped() {
+        //"d" typed at the end of "hello worl"
+        mView.onTextChanged(TEXT, TEXT.length() - 1, 0, 1);
+    }
+
+    @Benchmark
+    public void autoSuggestReplace() {
+        //"worl" replaced with "world" by the keyboard
+        mView.onTextChanged(TEXT, 6, 4, 5);
+    }
+
+    @Benchmark
+    public void sameLengthReplace() {
+        mView.onTextChanged(TEXT, 0, TEXT.length(), TEXT.length());
+    }
+}
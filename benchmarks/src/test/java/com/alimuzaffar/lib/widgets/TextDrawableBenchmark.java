@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.widget.TextView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TextDrawable.setText, which bound drawables run on every keystroke, and TextDrawable.draw.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextDrawableBenchmark {
+    @Param({"false", "true"})
+    public boolean atlas;
+
+    private TextDrawable mDrawable;
+    private Canvas mCanvas;
+    private boolean mToggle;
+
+    @Setup
+    public void setup() {
+        TextView tv = new TextView(BenchmarkViews.context());
+        BenchmarkViews.layout(tv);
+        mDrawable = new TextDrawable(tv, "USD");
+        mDrawable.setAtlasEnabled(atlas);
+    }
+
+    @Setup(Level.Iteration)
+    public void newCanvas() {
+        //Robolectric's canvas keeps a history of what was drawn, don't let it grow for too long.
+        mCanvas = new Canvas(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+    }
+
+    @Benchmark
+    public void setNewText() {
+        mToggle = !mToggle;
+        mDrawable.setText(mToggle ? "EUR" : "USD");
+    }
+
+    @Benchmark
+    public void setSameText() {
+        mDrawable.setText("USD");
+    }
+
+    @Benchmark
+    public void draw() {
+        mDrawable.draw(mCanvas);
+    }
+}
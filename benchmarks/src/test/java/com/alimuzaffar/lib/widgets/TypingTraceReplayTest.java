@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Bitmap;
+import android.view.Gravity;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Replays a typing trace into each animation type and writes a JSON report per animation type
+ * to the directory in the {@code replay.reportDir} system property.
+ * <p>
+ * Uses the trace file in the {@code replay.trace} system property, or the bundled sample trace.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class TypingTraceReplayTest {
+
+    @Test
+    public void replayTrace() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean("replay.enabled"));
+        TypingTrace trace = readTrace(System.getProperty("replay.trace", ""));
+        File reportDir = new File(System.getProperty("replay.reportDir", "build/reports/replay"));
+        //noinspection ResultOfMethodCallIgnored
+        reportDir.mkdirs();
+
+        for (AnimatedEditText.AnimationType animationType : AnimatedEditText.AnimationType.values()) {
+            AnimatedEditText view = BenchmarkViews.newEditText(animationType, false, Gravity.LEFT);
+            Bitmap bitmap = Bitmap.createBitmap(BenchmarkViews.WIDTH, BenchmarkViews.HEIGHT, Bitmap.Config.ARGB_8888);
+            TypingTraceReplayer.Report report = new TypingTraceReplayer(view, new ManualAnimationClock(), bitmap).replay(trace);
+
+            Writer out = new FileWriter(new File(reportDir, animationType.name().toLowerCase() + ".json"));
+            try {
+                out.write(report.toJson());
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private TypingTrace readTrace(String path) throws IOException {
+        InputStream in = path.isEmpty()
+                ? getClass().getResourceAsStream("/traces/sample.trace")
+                : new FileInputStream(path);
+        Reader reader = new InputStreamReader(in, "UTF-8");
+        try {
+            return TypingTrace.readFrom(reader);
+        } finally {
+            reader.close();
+        }
+    }
+}
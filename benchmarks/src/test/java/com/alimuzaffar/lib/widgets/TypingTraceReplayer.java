@@ -0,0 +1,160 @@
+/**
+ * Copyright 2016 Ali Muzaffar
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alimuzaffar.lib.widgets;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.text.Editable;
+
+import java.util.Arrays;
+
+/**
+ * Replays a {@link TypingTrace} into an {@link AnimatedEditText} on a {@link ManualAnimationClock},
+ * stepping and drawing every frame between edits, and reports what it cost.
+ */
+final class TypingTraceReplayer {
+    private final AnimatedEditText mView;
+    private final ManualAnimationClock mClock;
+    private final Bitmap mBitmap;
+    private Canvas mCanvas;
+    private long[] mFrameNanos;
+    private int mFrames;
+
+    TypingTraceReplayer(AnimatedEditText view, ManualAnimationClock clock, Bitmap bitmap) {
+        mView = view;
+        mClock = clock;
+        mBitmap = bitmap;
+        mView.setAnimationClock(clock);
+    }
+
+    Report replay(TypingTrace trace) {
+        PerformanceMetrics metrics = new PerformanceMetrics(mClock.getFrameIntervalMillis());
+        mView.setPerformanceMetrics(metrics);
+
+        long[] editNanos = new long[trace.size()];
+        mFrameNanos = new long[64];
+        mFrames = 0;
+        for (int i = 0; i < trace.size(); i++) {
+            //Robolectric's canvas keeps a history of what was drawn, don't let it grow for a whole trace.
+            mCanvas = new Canvas(mBitmap);
+            //step through the frames between the previous edit and this one.
+            long target = mClock.uptimeMillis() + trace.getDelayMillis(i);
+            while (mClock.hasPendingFrame() && mClock.uptimeMillis() + mClock.getFrameIntervalMillis() <= target) {
+                stepFrame();
+            }
+            //nothing is animating, skip ahead to the edit.
+            mClock.advanceTimeBy(target - mClock.uptimeMillis());
+
+            long editStart = System.nanoTime();
+            apply(trace, i);
+            editNanos[i] = System.nanoTime() - editStart;
+        }
+        //play out the animations started by the last edits.
+        mCanvas = new Canvas(mBitmap);
+        while (mClock.hasPendingFrame()) {
+            stepFrame();
+        }
+
+        mView.setPerformanceMetrics(null);
+        return new Report(trace, editNanos, Arrays.copyOf(mFrameNanos, mFrames), metrics.snapshot());
+    }
+
+    private void stepFrame() {
+        long frameStart = System.nanoTime();
+        mClock.stepFrame();
+        mView.onDraw(mCanvas);
+        if (mFrames == mFrameNanos.length) {
+            mFrameNanos = Arrays.copyOf(mFrameNanos, mFrames * 2);
+        }
+        mFrameNanos[mFrames++] = System.nanoTime() - frameStart;
+    }
+
+    private void apply(TypingTrace trace, int index) {
+        Editable text = mView.getText();
+        if (trace.getKind(index) == TypingTrace.KIND_CLEAR) {
+            mView.setText(null);
+            return;
+        }
+        //the trace is anonymized, replay the edit with filler characters at the same place.
+        int start = Math.min(trace.getStart(index), text.length());
+        int end = Math.min(start + trace.getLengthBefore(index), text.length());
+        text.replace(start, end, filler(trace.getLengthAfter(index)));
+    }
+
+    private static String filler(int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + i % 26);
+        }
+        return new String(chars);
+    }
+
+    static final class Report {
+        final int edits;
+        final int[] editsByKind = new int[TypingTrace.KIND_CLEAR + 1];
+        final long[] editNanos;
+        final long[] frameNanos;
+        final PerformanceMetrics.Snapshot metrics;
+
+        Report(TypingTrace trace, long[] editNanos, long[] frameNanos, PerformanceMetrics.Snapshot metrics) {
+            this.edits = trace.size();
+            for (int i = 0; i < trace.size(); i++) {
+                editsByKind[trace.getKind(i)]++;
+            }
+            this.editNanos = editNanos.clone();
+            this.frameNanos = frameNanos.clone();
+            Arrays.sort(this.editNanos);
+            Arrays.sort(this.frameNanos);
+            this.metrics = metrics;
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder("{\n");
+            sb.append("  \"edits\": ").append(edits).append(",\n");
+            sb.append("  \"editsByKind\": {");
+            for (int kind = 0; kind < editsByKind.length; kind++) {
+                sb.append(kind == 0 ? "" : ", ")
+                        .append('"').append(TypingTrace.kindToString(kind)).append("\": ")
+                        .append(editsByKind[kind]);
+            }
+            sb.append("},\n");
+            sb.append("  \"animationsStarted\": ").append(metrics.getAnimationsStarted()).append(",\n");
+            sb.append("  \"animationsCancelled\": ").append(metrics.getAnimationsCancelled()).append(",\n");
+            sb.append("  \"animationsCompleted\": ").append(metrics.getAnimationsCompleted()).append(",\n");
+            sb.append("  \"frames\": ").append(frameNanos.length).append(",\n");
+            appendDistribution(sb, "editNanos", editNanos).append(",\n");
+            appendDistribution(sb, "frameNanos", frameNanos).append("\n");
+            return sb.append("}\n").toString();
+        }
+
+        private static StringBuilder appendDistribution(StringBuilder sb, String name, long[] sorted) {
+            return sb.append("  \"").append(name).append("\": {")
+                    .append("\"p50\": ").append(percentile(sorted, 50)).append(", ")
+                    .append("\"p90\": ").append(percentile(sorted, 90)).append(", ")
+                    .append("\"p99\": ").append(percentile(sorted, 99)).append(", ")
+                    .append("\"max\": ").append(sorted.length == 0 ? 0 : sorted[sorted.length - 1])
+                    .append('}');
+        }
+
+        private static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}